@@ -0,0 +1,29 @@
+package be.pxl.services.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "datasource-routing")
+public class DataSourceRoutingProperties {
+    private boolean enabled = false;
+    private List<Replica> replicas = new ArrayList<>();
+    // how long a read waits for a replica connection before it falls back to the primary
+    private Duration connectionTimeout = Duration.ofSeconds(2);
+    private Duration healthCheckTimeout = Duration.ofSeconds(2);
+    // how long a client's reads stay on the primary after it wrote something; zero turns read-your-writes off
+    private Duration stickyWindow = Duration.ZERO;
+
+    @Data
+    public static class Replica {
+        private String url;
+        // the primary's credentials when left empty
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
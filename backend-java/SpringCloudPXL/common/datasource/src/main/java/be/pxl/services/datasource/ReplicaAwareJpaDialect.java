@@ -0,0 +1,55 @@
+package be.pxl.services.datasource;
+
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.sql.SQLException;
+import java.util.Objects;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Keeps rows read from a lagging replica out of the second-level cache. Read-only transactions that are routed to
+ * a replica use {@link CacheStoreMode#BYPASS} (Hibernate's CacheMode.GET): they still read from the cache, and
+ * updates still invalidate it, but nothing they load is put into it, so the cache is only filled from the primary.
+ * Set as an entity manager property because that is what Hibernate consults for {@code find} as well as queries.
+ */
+public class ReplicaAwareJpaDialect extends HibernateJpaDialect {
+    private static final String STORE_MODE = "jakarta.persistence.cache.storeMode";
+
+    private final BooleanSupplier routesToReplica;
+
+    public ReplicaAwareJpaDialect(BooleanSupplier routesToReplica) {
+        this.routesToReplica = routesToReplica;
+    }
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws SQLException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        if (!definition.isReadOnly() || !routesToReplica.getAsBoolean()) {
+            return transactionData;
+        }
+        Object previousStoreMode = entityManager.getProperties().get(STORE_MODE);
+        entityManager.setProperty(STORE_MODE, CacheStoreMode.BYPASS);
+        return new ReplicaTransactionData(transactionData, entityManager,
+                Objects.requireNonNullElse(previousStoreMode, CacheStoreMode.USE));
+    }
+
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        if (transactionData instanceof ReplicaTransactionData replicaTransactionData) {
+            if (replicaTransactionData.entityManager().isOpen()) {
+                replicaTransactionData.entityManager().setProperty(STORE_MODE, replicaTransactionData.previousStoreMode());
+            }
+            super.cleanupTransaction(replicaTransactionData.transactionData());
+        } else {
+            super.cleanupTransaction(transactionData);
+        }
+    }
+
+    private record ReplicaTransactionData(Object transactionData, EntityManager entityManager,
+                                          Object previousStoreMode) {
+    }
+}
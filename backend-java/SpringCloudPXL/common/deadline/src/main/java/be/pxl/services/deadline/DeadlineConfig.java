@@ -0,0 +1,85 @@
+package be.pxl.services.deadline;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Deadline propagation: the gateway stamps every request with a budget in X-Request-Timeout and every hop starts
+ * its own deadline from it, passes what is left on to the services it calls, and abandons work for a request whose
+ * budget has run out with 504; deadline.exceeded counts where, by stage.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "deadline", name = "enabled", havingValue = "true")
+public class DeadlineConfig {
+
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class ServletDeadline {
+
+        @Bean
+        public FilterRegistrationBean<DeadlineFilter> deadlineFilter(DeadlineProperties properties,
+                                                                     MeterRegistry meterRegistry) {
+            FilterRegistrationBean<DeadlineFilter> registration =
+                    new FilterRegistrationBean<>(new DeadlineFilter(properties, meterRegistry));
+            registration.addUrlPatterns("/api/*");
+            // after the concurrency limit
+            registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 3);
+            return registration;
+        }
+    }
+
+    @Configuration
+    @ConditionalOnClass(name = "org.hibernate.resource.jdbc.spi.StatementInspector")
+    static class QueryDeadline {
+
+        @Bean
+        public HibernatePropertiesCustomizer deadlineStatementInspector(MeterRegistry meterRegistry) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR,
+                    new DeadlineStatementInspector(meterRegistry.counter("deadline.exceeded", "stage", "query")));
+        }
+    }
+
+    // applies to every Feign client
+    @Configuration
+    @ConditionalOnClass(name = "feign.RequestInterceptor")
+    static class FeignDeadline {
+
+        @Bean
+        public DeadlineRequestInterceptor deadlineRequestInterceptor(MeterRegistry meterRegistry) {
+            return new DeadlineRequestInterceptor(meterRegistry.counter("deadline.exceeded", "stage", "call"));
+        }
+    }
+
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    static class ReactiveDeadline {
+
+        @Bean
+        public DeadlineWebFilter deadlineWebFilter(DeadlineProperties properties, MeterRegistry meterRegistry) {
+            return new DeadlineWebFilter(properties, meterRegistry);
+        }
+
+        @Bean
+        public DeadlineExchangeFilter deadlineExchangeFilter(MeterRegistry meterRegistry) {
+            return new DeadlineExchangeFilter(meterRegistry.counter("deadline.exceeded", "stage", "call"));
+        }
+    }
+
+    @Configuration
+    @ConditionalOnClass(name = "org.springframework.cloud.gateway.filter.GlobalFilter")
+    static class GatewayDeadline {
+
+        @Bean
+        public DeadlineGlobalFilter deadlineGlobalFilter(MeterRegistry meterRegistry) {
+            return new DeadlineGlobalFilter(meterRegistry);
+        }
+    }
+}
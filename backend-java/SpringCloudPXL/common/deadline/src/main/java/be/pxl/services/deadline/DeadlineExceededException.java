@@ -0,0 +1,11 @@
+package be.pxl.services.deadline;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+public class DeadlineExceededException extends RuntimeException {
+    public DeadlineExceededException(String stage) {
+        super("Request deadline passed before " + stage);
+    }
+}
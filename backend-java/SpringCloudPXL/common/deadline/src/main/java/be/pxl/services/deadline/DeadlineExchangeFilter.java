@@ -0,0 +1,40 @@
+package be.pxl.services.deadline;
+
+import io.micrometer.core.instrument.Counter;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * {@link DeadlineRequestInterceptor} for WebClient calls: sends the remaining budget along, and skips calls the
+ * client would no longer wait for.
+ */
+public class DeadlineExchangeFilter implements ExchangeFilterFunction {
+    private final Counter skipped;
+
+    public DeadlineExchangeFilter(Counter skipped) {
+        this.skipped = skipped;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.deferContextual(context -> {
+            Duration remaining = RequestDeadline.remaining(context).orElse(null);
+            if (remaining == null) {
+                return next.exchange(request);
+            }
+            if (remaining.isNegative() || remaining.isZero()) {
+                skipped.increment();
+                return Mono.error(new TimeoutException("Request deadline passed before calling " + request.url()));
+            }
+            return next.exchange(ClientRequest.from(request)
+                    .header(RequestDeadline.HEADER, RequestDeadline.headerValue(remaining))
+                    .build());
+        });
+    }
+}
@@ -0,0 +1,48 @@
+package be.pxl.services.deadline;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Starts the {@link RequestDeadline} of requests that carry one. A request whose budget is already used up when
+ * it arrives is answered with 504 without being handled; the caller has given up on it.
+ */
+public class DeadlineFilter extends OncePerRequestFilter {
+    private final DeadlineProperties properties;
+    private final Counter expiredOnArrival;
+
+    public DeadlineFilter(DeadlineProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.expiredOnArrival = meterRegistry.counter("deadline.exceeded", "stage", "received");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Duration timeout = properties.timeoutOf(request.getHeader(RequestDeadline.HEADER));
+        if (timeout == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (timeout.isNegative() || timeout.isZero()) {
+            expiredOnArrival.increment();
+            response.setStatus(HttpStatus.GATEWAY_TIMEOUT.value());
+            return;
+        }
+        RequestDeadline.set(timeout);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestDeadline.clear();
+        }
+    }
+}
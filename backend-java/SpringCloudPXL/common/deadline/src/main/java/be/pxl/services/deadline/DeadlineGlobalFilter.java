@@ -0,0 +1,42 @@
+package be.pxl.services.deadline;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Cancels a routed request once its deadline passes, which closes the connection to the service handling it, and
+ * answers 504.
+ */
+public class DeadlineGlobalFilter implements GlobalFilter, Ordered {
+    private final Counter timedOut;
+
+    public DeadlineGlobalFilter(MeterRegistry meterRegistry) {
+        this.timedOut = meterRegistry.counter("deadline.exceeded", "stage", "gateway");
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        return Mono.deferContextual(context -> {
+            Duration remaining = RequestDeadline.remaining(context).orElse(null);
+            if (remaining == null) {
+                return chain.filter(exchange);
+            }
+            return chain.filter(exchange).timeout(remaining.isNegative() ? Duration.ZERO : remaining, Mono.defer(() -> {
+                timedOut.increment();
+                return DeadlineWebFilter.gatewayTimeout(exchange.getResponse());
+            }));
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
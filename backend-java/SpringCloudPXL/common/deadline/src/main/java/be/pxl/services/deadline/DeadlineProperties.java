@@ -0,0 +1,25 @@
+package be.pxl.services.deadline;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "deadline")
+public class DeadlineProperties {
+    private boolean enabled = false;
+    // budget of requests that do not bring their own X-Request-Timeout; only set at the edge (the gateway)
+    private Duration defaultTimeout;
+    // clients may ask for less, not for more
+    private Duration maxTimeout;
+
+    // null when the request gets no deadline
+    public Duration timeoutOf(String header) {
+        Duration requested = header == null ? null : RequestDeadline.parse(header);
+        if (requested == null) {
+            return defaultTimeout;
+        }
+        return maxTimeout != null && requested.compareTo(maxTimeout) > 0 ? maxTimeout : requested;
+    }
+}
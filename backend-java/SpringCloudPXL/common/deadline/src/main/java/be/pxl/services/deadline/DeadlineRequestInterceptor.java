@@ -0,0 +1,32 @@
+package be.pxl.services.deadline;
+
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+import io.micrometer.core.instrument.Counter;
+
+import java.time.Duration;
+
+/**
+ * Passes what is left of the request's deadline on to the other services. A call the caller would no longer wait
+ * for is not sent at all.
+ */
+public class DeadlineRequestInterceptor implements RequestInterceptor {
+    private final Counter skipped;
+
+    public DeadlineRequestInterceptor(Counter skipped) {
+        this.skipped = skipped;
+    }
+
+    @Override
+    public void apply(RequestTemplate template) {
+        Duration remaining = RequestDeadline.remaining().orElse(null);
+        if (remaining == null) {
+            return;
+        }
+        if (remaining.isNegative() || remaining.isZero()) {
+            skipped.increment();
+            throw new DeadlineExceededException("calling " + template.feignTarget().name());
+        }
+        template.header(RequestDeadline.HEADER, RequestDeadline.headerValue(remaining));
+    }
+}
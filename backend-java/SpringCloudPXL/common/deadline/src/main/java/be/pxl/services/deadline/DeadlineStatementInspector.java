@@ -0,0 +1,25 @@
+package be.pxl.services.deadline;
+
+import io.micrometer.core.instrument.Counter;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Runs before Hibernate prepares a statement and stops requests whose deadline has passed from sending any more
+ * queries. Statements outside a request with a deadline, like scheduled jobs, are left alone.
+ */
+public class DeadlineStatementInspector implements StatementInspector {
+    private final Counter skipped;
+
+    public DeadlineStatementInspector(Counter skipped) {
+        this.skipped = skipped;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (RequestDeadline.isExpired()) {
+            skipped.increment();
+            throw new DeadlineExceededException("query");
+        }
+        return sql;
+    }
+}
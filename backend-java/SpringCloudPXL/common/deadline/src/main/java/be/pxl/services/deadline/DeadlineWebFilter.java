@@ -0,0 +1,59 @@
+package be.pxl.services.deadline;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * {@link DeadlineFilter} for reactive applications. At the gateway every request gets a deadline: the client's own
+ * X-Request-Timeout, capped at deadline.max-timeout, or deadline.default-timeout. The budget is forwarded on
+ * routed requests and kept in the Reactor context for {@link DeadlineGlobalFilter} and the WebClient calls.
+ */
+public class DeadlineWebFilter implements WebFilter, Ordered {
+    private final DeadlineProperties properties;
+    private final Counter expiredOnArrival;
+
+    public DeadlineWebFilter(DeadlineProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.expiredOnArrival = meterRegistry.counter("deadline.exceeded", "stage", "received");
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        Duration timeout = properties.timeoutOf(exchange.getRequest().getHeaders().getFirst(RequestDeadline.HEADER));
+        if (timeout == null) {
+            return chain.filter(exchange);
+        }
+        if (timeout.isNegative() || timeout.isZero()) {
+            expiredOnArrival.increment();
+            return gatewayTimeout(exchange.getResponse());
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+        ServerWebExchange stamped = exchange.mutate()
+                .request(request -> request.header(RequestDeadline.HEADER, String.valueOf(timeout.toMillis())))
+                .build();
+        return chain.filter(stamped)
+                .contextWrite(context -> context.put(RequestDeadline.CONTEXT_KEY, deadline));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 2;
+    }
+
+    static Mono<Void> gatewayTimeout(ServerHttpResponse response) {
+        if (response.isCommitted()) {
+            return Mono.empty();
+        }
+        response.setStatusCode(HttpStatus.GATEWAY_TIMEOUT);
+        return response.setComplete();
+    }
+}
@@ -0,0 +1,77 @@
+package be.pxl.services.deadline;
+
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Deadline of the request being handled. Callers send their remaining budget in the X-Request-Timeout header, in
+ * milliseconds, rather than a point in time, so the services' clocks do not have to agree; each hop turns it into
+ * a local deadline when the request arrives and sends on whatever is left. Servlet services keep the deadline of
+ * the current thread's request, the gateway keeps it in the Reactor context.
+ */
+public final class RequestDeadline {
+    public static final String HEADER = "X-Request-Timeout";
+    static final String CONTEXT_KEY = RequestDeadline.class.getName();
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    public static void set(Duration timeout) {
+        DEADLINE.set(System.nanoTime() + timeout.toNanos());
+    }
+
+    public static void clear() {
+        DEADLINE.remove();
+    }
+
+    // empty when the request came without a deadline
+    public static Optional<Duration> remaining() {
+        return remaining(DEADLINE.get());
+    }
+
+    // empty outside a request with a deadline
+    public static Optional<Duration> remaining(ContextView context) {
+        return remaining(context.<Long>getOrEmpty(CONTEXT_KEY).orElse(null));
+    }
+
+    public static boolean isExpired() {
+        Long deadline = DEADLINE.get();
+        return deadline != null && deadline - System.nanoTime() <= 0;
+    }
+
+    // the shorter of a call's own timeout and what is left of the request's budget
+    public static Duration shorten(Duration timeout) {
+        return shorten(remaining(), timeout);
+    }
+
+    public static Duration shorten(ContextView context, Duration timeout) {
+        return shorten(remaining(context), timeout);
+    }
+
+    static Duration parse(String header) {
+        try {
+            return Duration.ofMillis(Long.parseLong(header.trim()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // rounded up: a budget of 0 would be rejected on arrival
+    static String headerValue(Duration remaining) {
+        return String.valueOf(Math.max(1, remaining.toMillis()));
+    }
+
+    private static Optional<Duration> remaining(Long deadline) {
+        return deadline == null ? Optional.empty() : Optional.of(Duration.ofNanos(deadline - System.nanoTime()));
+    }
+
+    private static Duration shorten(Optional<Duration> remaining, Duration timeout) {
+        return remaining
+                .map(left -> left.isNegative() ? Duration.ZERO : left)
+                .filter(left -> left.compareTo(timeout) < 0)
+                .orElse(timeout);
+    }
+}
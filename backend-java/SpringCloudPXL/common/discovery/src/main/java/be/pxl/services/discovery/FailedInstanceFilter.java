@@ -0,0 +1,33 @@
+package be.pxl.services.discovery;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.DelegatingServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * Drops quarantined instances from the (cached) instance list. When every instance is quarantined the full
+ * list is returned, so a blip on all of them never makes the service unreachable.
+ */
+public class FailedInstanceFilter extends DelegatingServiceInstanceListSupplier {
+    private final FailedInstanceRegistry failedInstanceRegistry;
+
+    public FailedInstanceFilter(ServiceInstanceListSupplier delegate, FailedInstanceRegistry failedInstanceRegistry) {
+        super(delegate);
+        this.failedInstanceRegistry = failedInstanceRegistry;
+    }
+
+    @Override
+    public Flux<List<ServiceInstance>> get() {
+        return getDelegate().get().map(this::filter);
+    }
+
+    private List<ServiceInstance> filter(List<ServiceInstance> instances) {
+        List<ServiceInstance> available = instances.stream()
+                .filter(instance -> !failedInstanceRegistry.isQuarantined(instance))
+                .toList();
+        return available.isEmpty() ? instances : available;
+    }
+}
@@ -0,0 +1,58 @@
+package be.pxl.services.discovery;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.stereotype.Component;
+
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+
+/**
+ * Reports the outcome of every load-balanced call to the {@link FailedInstanceRegistry}. Only failures to
+ * connect count: an instance that answers, even with an error, is alive.
+ */
+@Component
+@RequiredArgsConstructor
+public class FailedInstanceLifecycle implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+    private final FailedInstanceRegistry failedInstanceRegistry;
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        if (completionContext.status() == CompletionContext.Status.FAILED
+                && isConnectFailure(completionContext.getThrowable())) {
+            failedInstanceRegistry.markFailed(lbResponse.getServer());
+        } else if (completionContext.status() == CompletionContext.Status.SUCCESS) {
+            failedInstanceRegistry.markSucceeded(lbResponse.getServer());
+        }
+    }
+
+    private static boolean isConnectFailure(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof NoRouteToHostException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
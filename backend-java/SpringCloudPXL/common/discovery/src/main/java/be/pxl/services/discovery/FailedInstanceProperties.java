@@ -0,0 +1,14 @@
+package be.pxl.services.discovery;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "discovery.failed-instances")
+public class FailedInstanceProperties {
+    private boolean enabled = false;
+    // how long an instance that refused a connection is skipped before it is tried again
+    private Duration quarantine = Duration.ofSeconds(15);
+}
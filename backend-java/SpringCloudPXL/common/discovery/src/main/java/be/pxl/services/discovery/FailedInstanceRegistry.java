@@ -0,0 +1,58 @@
+package be.pxl.services.discovery;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Instances the load balancer could not connect to, kept out of rotation until their quarantine ends or the
+ * registry stops listing them, whichever comes first.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FailedInstanceRegistry {
+    private final FailedInstanceProperties properties;
+    private final Map<String, Instant> quarantined = new ConcurrentHashMap<>();
+
+    public void markFailed(ServiceInstance instance) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (quarantined.put(key(instance), Instant.now().plus(properties.getQuarantine())) == null) {
+            log.warn("Quarantining {} at {}:{} after a connection failure", instance.getServiceId(),
+                    instance.getHost(), instance.getPort());
+        }
+    }
+
+    public void markSucceeded(ServiceInstance instance) {
+        if (!quarantined.isEmpty()) {
+            quarantined.remove(key(instance));
+        }
+    }
+
+    public boolean isQuarantined(ServiceInstance instance) {
+        if (quarantined.isEmpty()) {
+            return false;
+        }
+        String key = key(instance);
+        Instant until = quarantined.get(key);
+        if (until == null) {
+            return false;
+        }
+        if (until.isBefore(Instant.now())) {
+            quarantined.remove(key, until);
+            return false;
+        }
+        return true;
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getServiceId() + "@" + instance.getHost() + ":" + instance.getPort();
+    }
+}
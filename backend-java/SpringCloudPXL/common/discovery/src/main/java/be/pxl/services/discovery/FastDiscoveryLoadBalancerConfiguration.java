@@ -0,0 +1,37 @@
+package be.pxl.services.discovery;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplierBuilder;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplierBuilder.DelegateCreator;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Load balancer configuration for every client: discovery, the local instance-list cache
+ * (spring.cloud.loadbalancer.cache.*) and the failed-instance filter on top of the cache, so a quarantine
+ * takes effect without waiting for the next refresh. Filters a service declares as {@link DelegateCreator} beans
+ * come last. Not a @Configuration on purpose; it is applied per client through @LoadBalancerClients.
+ */
+public class FastDiscoveryLoadBalancerConfiguration {
+    // servlet services look instances up with the blocking discovery client, the gateway with the reactive one
+    private static final boolean SERVLET =
+            ClassUtils.isPresent("org.springframework.web.servlet.DispatcherServlet", null);
+
+    @Bean
+    public ServiceInstanceListSupplier serviceInstanceListSupplier(ConfigurableApplicationContext context,
+                                                                   FailedInstanceRegistry failedInstanceRegistry,
+                                                                   ObjectProvider<DelegateCreator> filters) {
+        ServiceInstanceListSupplierBuilder builder = ServiceInstanceListSupplier.builder();
+        if (SERVLET) {
+            builder.withBlockingDiscoveryClient();
+        } else {
+            builder.withDiscoveryClient();
+        }
+        builder.withCaching()
+                .with((ctx, delegate) -> new FailedInstanceFilter(delegate, failedInstanceRegistry));
+        filters.orderedStream().forEach(builder::with);
+        return builder.build(context);
+    }
+}
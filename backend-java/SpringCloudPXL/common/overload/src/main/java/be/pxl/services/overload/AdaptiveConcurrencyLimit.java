@@ -0,0 +1,102 @@
+package be.pxl.services.overload;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that follows the service's latency, after the gradient algorithm of Netflix's
+ * concurrency-limits. Request latencies are averaged per window and compared with a slowly moving average of
+ * past windows. While they match, the limit grows by concurrency-limit.queue-size per window; once requests slow
+ * down, because they queue for database connections or CPU, the limit shrinks in proportion, by at most half per
+ * window. A window in which fewer than half of the permits were in use does not change the limit.
+ */
+public class AdaptiveConcurrencyLimit {
+    // windows averaged into the long-term latency
+    private static final int LONG_WINDOW = 600;
+
+    private final ConcurrencyLimitProperties properties;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private volatile int limit;
+    private double estimatedLimit;
+    private double longRtt;
+    private long windows;
+    private long windowStart = System.nanoTime();
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInflight;
+
+    public AdaptiveConcurrencyLimit(ConcurrencyLimitProperties properties) {
+        this.properties = properties;
+        this.estimatedLimit = properties.getInitialLimit();
+        this.limit = properties.getInitialLimit();
+    }
+
+    /**
+     * Takes a permit unless the limit is reached. Requests without priority leave
+     * concurrency-limit.priority-reserve of the limit free.
+     */
+    public boolean tryAcquire(boolean priority) {
+        int current = limit;
+        int admitted = priority ? current : current - Math.max(1, (int) (current * properties.getPriorityReserve()));
+        while (true) {
+            int taken = inflight.get();
+            if (taken >= admitted) {
+                return false;
+            }
+            if (inflight.compareAndSet(taken, taken + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns the permit and records how long the request took, and how many requests were in flight when it
+     * started.
+     */
+    public void release(long rttNanos, int inflightAtStart) {
+        inflight.decrementAndGet();
+        onSample(rttNanos, inflightAtStart);
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    private synchronized void onSample(long rttNanos, int inflightAtStart) {
+        windowRttSum += rttNanos;
+        windowSamples++;
+        windowMaxInflight = Math.max(windowMaxInflight, inflightAtStart);
+        long now = System.nanoTime();
+        if (windowSamples < properties.getWindowSamples() || now - windowStart < properties.getWindow().toNanos()) {
+            return;
+        }
+        double shortRtt = (double) windowRttSum / windowSamples;
+        int maxInflight = windowMaxInflight;
+        windowStart = now;
+        windowRttSum = 0;
+        windowSamples = 0;
+        windowMaxInflight = 0;
+        update(shortRtt, maxInflight);
+    }
+
+    private void update(double shortRtt, int maxInflight) {
+        windows++;
+        double weight = 2.0 / (Math.min(windows, LONG_WINDOW) + 1);
+        longRtt = longRtt == 0 ? shortRtt : longRtt * (1 - weight) + shortRtt * weight;
+        // after a slow period the long-term latency has to come down again, or the limit could not grow back
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+        if (maxInflight < estimatedLimit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, properties.getTolerance() * longRtt / shortRtt));
+        double newLimit = estimatedLimit * gradient + properties.getQueueSize();
+        newLimit = estimatedLimit * (1 - properties.getSmoothing()) + newLimit * properties.getSmoothing();
+        estimatedLimit = Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), newLimit));
+        limit = (int) estimatedLimit;
+    }
+}
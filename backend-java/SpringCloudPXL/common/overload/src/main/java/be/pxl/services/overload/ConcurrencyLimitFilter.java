@@ -0,0 +1,64 @@
+package be.pxl.services.overload;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Sheds load in front of the controllers. A request over the {@link AdaptiveConcurrencyLimit} is answered with
+ * 503 and Retry-After straight away instead of waiting for a thread or a connection it would time out on, so the
+ * requests that are admitted keep their normal latency. Writes have priority over reads; a client can override
+ * that with X-Priority: high or low.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    static final String PRIORITY_HEADER = "X-Priority";
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final AdaptiveConcurrencyLimit limit;
+    private final Counter rejectedPriority;
+    private final Counter rejected;
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimit limit, MeterRegistry meterRegistry) {
+        this.limit = limit;
+        this.rejectedPriority = meterRegistry.counter("concurrency.limit.rejected", "priority", "high");
+        this.rejected = meterRegistry.counter("concurrency.limit.rejected", "priority", "low");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean priority = isPriority(request);
+        if (!limit.tryAcquire(priority)) {
+            (priority ? rejectedPriority : rejected).increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", "1");
+            return;
+        }
+        int inflight = limit.getInflight();
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            limit.release(System.nanoTime() - start, inflight);
+        }
+    }
+
+    private static boolean isPriority(HttpServletRequest request) {
+        String priority = request.getHeader(PRIORITY_HEADER);
+        if ("high".equalsIgnoreCase(priority)) {
+            return true;
+        }
+        if ("low".equalsIgnoreCase(priority)) {
+            return false;
+        }
+        return !READ_METHODS.contains(request.getMethod());
+    }
+}
@@ -0,0 +1,26 @@
+package be.pxl.services.overload;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "concurrency-limit")
+public class ConcurrencyLimitProperties {
+    private boolean enabled = false;
+    private int initialLimit = 20;
+    private int minLimit = 4;
+    private int maxLimit = 200;
+    // how much slower than the long-term latency requests may get before the limit shrinks
+    private double tolerance = 1.5;
+    // extra requests allowed on top of the estimate, so the limit keeps probing for more capacity
+    private int queueSize = 4;
+    // weight of a new estimate against the current limit
+    private double smoothing = 0.2;
+    // a window of samples closes after at least this long and this many requests
+    private Duration window = Duration.ofMillis(100);
+    private int windowSamples = 10;
+    // share of the limit only writes and X-Priority: high requests may use
+    private double priorityReserve = 0.1;
+}
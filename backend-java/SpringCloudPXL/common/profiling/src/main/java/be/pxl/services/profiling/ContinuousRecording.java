@@ -0,0 +1,138 @@
+package be.pxl.services.profiling;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Flight recording that runs for the whole life of the service, so that data on a slow spell is already there
+ * when someone looks. It keeps profiling.max-age of data, at most profiling.max-size, in JFR's disk repository;
+ * {@link #dump(Duration)} copies the most recent part of it to a file in profiling.dump-directory.
+ */
+@Slf4j
+public class ContinuousRecording implements SmartLifecycle {
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private final ProfilingProperties properties;
+    private final ResourceLoader resourceLoader;
+    private final String applicationName;
+    private Recording recording;
+
+    public ContinuousRecording(ProfilingProperties properties, ResourceLoader resourceLoader, String applicationName) {
+        this.properties = properties;
+        this.resourceLoader = resourceLoader;
+        this.applicationName = applicationName;
+    }
+
+    @Override
+    public synchronized void start() {
+        Recording recording = new Recording(settings());
+        recording.setName(applicationName + "-continuous");
+        recording.setToDisk(true);
+        recording.setMaxAge(properties.getMaxAge());
+        recording.setMaxSize(properties.getMaxSize().toBytes());
+        recording.start();
+        this.recording = recording;
+        log.info("Continuous flight recording started, keeping {} / {}", properties.getMaxAge(), properties.getMaxSize());
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return recording != null;
+    }
+
+    /**
+     * Writes the last {@code window} of recorded data to a new file and applies the retention limits to the dump
+     * directory.
+     */
+    public synchronized Path dump(Duration window) throws IOException {
+        Path directory = Path.of(properties.getDumpDirectory());
+        Files.createDirectories(directory);
+        Path file = directory.resolve(applicationName + "-" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".jfr");
+        try (Recording snapshot = FlightRecorder.getFlightRecorder().takeSnapshot()) {
+            snapshot.setMaxAge(window);
+            snapshot.dump(file);
+        }
+        enforceRetention(directory, file);
+        return file;
+    }
+
+    public List<Path> getDumps() throws IOException {
+        Path directory = Path.of(properties.getDumpDirectory());
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".jfr"))
+                    .sorted(Comparator.comparing(ContinuousRecording::lastModified).reversed())
+                    .toList();
+        }
+    }
+
+    // newest first; the dump just written is always kept
+    private void enforceRetention(Path directory, Path latest) throws IOException {
+        long total = 0;
+        int kept = 0;
+        for (Path dump : getDumps()) {
+            long size = Files.size(dump);
+            if (!dump.equals(latest) && (kept >= properties.getMaxDumps()
+                    || total + size > properties.getMaxDumpSize().toBytes())) {
+                Files.deleteIfExists(dump);
+                log.info("Deleted flight recording dump {}", dump.getFileName());
+                continue;
+            }
+            total += size;
+            kept++;
+        }
+    }
+
+    // the JDK's default profile, meant for continuous use, with the overrides from profiling.settings
+    private Map<String, String> settings() {
+        try (Reader reader = new InputStreamReader(resourceLoader.getResource(properties.getSettings()).getInputStream(),
+                StandardCharsets.UTF_8)) {
+            Map<String, String> settings = new HashMap<>(Configuration.getConfiguration("default").getSettings());
+            settings.putAll(Configuration.create(reader).getSettings());
+            return settings;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ParseException e) {
+            throw new IllegalStateException("Invalid JFR settings in " + properties.getSettings(), e);
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package be.pxl.services.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("be.pxl.services.FeignCall")
+@Label("Feign Call")
+@Description("HTTP call to another service through a Feign client")
+@Category({"PXL", "Feign"})
+@StackTrace(false)
+@Threshold("1 ms")
+public class FeignCallEvent extends Event {
+    @Label("Client")
+    String client;
+
+    @Label("Method")
+    String method;
+
+    @Label("URL")
+    String url;
+
+    // 0 when no response came back
+    @Label("Status")
+    int status;
+}
@@ -0,0 +1,37 @@
+package be.pxl.services.profiling;
+
+import feign.Capability;
+import feign.Client;
+import feign.Response;
+
+/**
+ * Emits a {@link FeignCallEvent} for every call made through a Feign client. Picked up by Spring Cloud OpenFeign
+ * as a Capability bean.
+ */
+public class FeignCallRecorder implements Capability {
+
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> {
+            FeignCallEvent event = new FeignCallEvent();
+            if (!event.isEnabled()) {
+                return client.execute(request, options);
+            }
+            event.begin();
+            Response response = null;
+            try {
+                response = client.execute(request, options);
+                return response;
+            } finally {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.client = request.requestTemplate().feignTarget().name();
+                    event.method = request.httpMethod().name();
+                    event.url = request.url();
+                    event.status = response == null ? 0 : response.status();
+                    event.commit();
+                }
+            }
+        };
+    }
+}
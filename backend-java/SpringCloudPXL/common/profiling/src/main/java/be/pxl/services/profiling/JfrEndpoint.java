@@ -0,0 +1,55 @@
+package be.pxl.services.profiling;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * /actuator/jfr: GET lists the dumps on disk, a JSON POST of {"minutes": n} dumps the last n minutes of the
+ * continuous recording ({} for profiling.default-dump-window). Only reachable with the profiling.token.
+ */
+@Endpoint(id = "jfr")
+@RequiredArgsConstructor
+public class JfrEndpoint {
+    private final ContinuousRecording continuousRecording;
+    private final ProfilingProperties properties;
+
+    @ReadOperation
+    public List<Map<String, Object>> dumps() throws IOException {
+        List<Map<String, Object>> dumps = new ArrayList<>();
+        for (Path dump : continuousRecording.getDumps()) {
+            dumps.add(describe(dump));
+        }
+        return dumps;
+    }
+
+    @WriteOperation
+    public Map<String, Object> dump(@Nullable Long minutes) throws IOException {
+        Duration window = minutes == null ? properties.getDefaultDumpWindow() : Duration.ofMinutes(Math.max(1, minutes));
+        if (window.compareTo(properties.getMaxAge()) > 0) {
+            window = properties.getMaxAge();
+        }
+        Map<String, Object> dump = describe(continuousRecording.dump(window));
+        dump.put("window", window.toString());
+        return dump;
+    }
+
+    private static Map<String, Object> describe(Path dump) throws IOException {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("file", dump.toAbsolutePath().toString());
+        description.put("size", Files.size(dump));
+        description.put("created", Files.getLastModifiedTime(dump).toInstant());
+        return description;
+    }
+}
@@ -0,0 +1,80 @@
+package be.pxl.services.profiling;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ResourceLoader;
+
+/**
+ * Continuous profiling with JDK Flight Recorder; dumps are taken through the jfr actuator endpoint. Services with
+ * AOP on the classpath also record their own {@link ServiceMethodEvent}s, services with Feign clients their
+ * {@link FeignCallEvent}s.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "profiling", name = "enabled", havingValue = "true")
+public class ProfilingConfig {
+
+    @Bean
+    public ContinuousRecording continuousRecording(ProfilingProperties properties, ResourceLoader resourceLoader,
+                                                   @Value("${spring.application.name}") String applicationName) {
+        return new ContinuousRecording(properties, resourceLoader, applicationName);
+    }
+
+    @Bean
+    public JfrEndpoint jfrEndpoint(ContinuousRecording continuousRecording, ProfilingProperties properties) {
+        if (properties.getToken() == null || properties.getToken().isBlank()) {
+            log.warn("profiling.token is not set: /actuator/jfr refuses every request until PROFILING_TOKEN (or "
+                    + "profiling.token) is configured; the continuous recording itself is running");
+        }
+        return new JfrEndpoint(continuousRecording, properties);
+    }
+
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class ServletEndpointSecurity {
+
+        @Bean
+        public FilterRegistrationBean<EndpointTokenFilter> jfrEndpointTokenFilter(ProfilingProperties properties) {
+            FilterRegistrationBean<EndpointTokenFilter> registration =
+                    new FilterRegistrationBean<>(new EndpointTokenFilter(properties.getToken()));
+            registration.addUrlPatterns("/actuator/jfr", "/actuator/jfr/*");
+            return registration;
+        }
+    }
+
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    static class ReactiveEndpointSecurity {
+
+        @Bean
+        public ReactiveEndpointTokenFilter jfrEndpointTokenFilter(ProfilingProperties properties) {
+            return new ReactiveEndpointTokenFilter(properties.getToken());
+        }
+    }
+
+    @Configuration
+    @ConditionalOnClass(name = "org.aspectj.weaver.Advice")
+    static class ServiceMethodRecording {
+
+        @Bean
+        public ServiceMethodRecorder serviceMethodRecorder() {
+            return new ServiceMethodRecorder();
+        }
+    }
+
+    @Configuration
+    @ConditionalOnClass(name = "feign.Capability")
+    static class FeignCallRecording {
+
+        @Bean
+        public FeignCallRecorder feignCallRecorder() {
+            return new FeignCallRecorder();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package be.pxl.services.profiling;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "profiling")
+public class ProfilingProperties {
+    private boolean enabled = false;
+    // overrides applied on top of the JDK's default profile
+    private String settings = "classpath:jfr/continuous.jfc";
+    // how much recent data the continuous recording keeps, in JFR's own disk repository
+    private Duration maxAge = Duration.ofMinutes(30);
+    private DataSize maxSize = DataSize.ofMegabytes(250);
+    private String dumpDirectory = "jfr-dumps";
+    private Duration defaultDumpWindow = Duration.ofMinutes(5);
+    // older dumps are deleted once there are more, or once they take up more space, than this
+    private int maxDumps = 10;
+    private DataSize maxDumpSize = DataSize.ofGigabytes(1);
+    // bearer token of the jfr actuator endpoint; without one the endpoint refuses every request
+    private String token;
+}
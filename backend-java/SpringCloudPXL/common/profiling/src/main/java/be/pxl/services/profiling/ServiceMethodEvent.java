@@ -0,0 +1,26 @@
+package be.pxl.services.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("be.pxl.services.ServiceMethod")
+@Label("Service Method")
+@Description("Call of a public method of a service class")
+@Category({"PXL", "Services"})
+@StackTrace(false)
+@Threshold("1 ms")
+public class ServiceMethodEvent extends Event {
+    @Label("Service")
+    String service;
+
+    @Label("Method")
+    String method;
+
+    @Label("Failed")
+    boolean failed;
+}
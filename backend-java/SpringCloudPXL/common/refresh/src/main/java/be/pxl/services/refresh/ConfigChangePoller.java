@@ -0,0 +1,62 @@
+package be.pxl.services.refresh;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.context.refresh.ContextRefresher;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.util.Set;
+
+/**
+ * Asks config-service whether this service's configuration changed, using the version ETag it hands out, and
+ * refreshes the environment only when it did. A refresh rebinds properties in place; no bean is recreated, so
+ * requests in flight are not affected.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ConfigChangePoller {
+    private final ConfigRefreshProperties properties;
+    // absent when spring.cloud.refresh.enabled=false, as in the AOT-processed fast-startup build
+    private final ObjectProvider<ContextRefresher> contextRefresher;
+    private final Environment environment;
+    private final RestClient restClient = RestClient.create();
+    private String version;
+
+    @Scheduled(fixedDelayString = "${config-refresh.poll-interval:30000}")
+    public void poll() {
+        if (!properties.isPoll() || contextRefresher.getIfAvailable() == null) {
+            return;
+        }
+        String profiles = environment.getActiveProfiles().length == 0
+                ? "default" : String.join(",", environment.getActiveProfiles());
+        ResponseEntity<Void> response;
+        try {
+            RestClient.RequestHeadersSpec<?> request = restClient.get().uri(properties.getServerUrl() + "/{application}/{profiles}",
+                    environment.getProperty("spring.application.name"), profiles);
+            if (version != null) {
+                request.header(HttpHeaders.IF_NONE_MATCH, version);
+            }
+            response = request.retrieve().toBodilessEntity();
+        } catch (RuntimeException e) {
+            log.debug("Config server not reachable: {}", e.getMessage());
+            return;
+        }
+        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+            return;
+        }
+        String previous = version;
+        version = response.getHeaders().getETag();
+        if (previous != null && !previous.equals(version)) {
+            Set<String> keys = contextRefresher.getObject().refresh();
+            log.info("Configuration version {} applied, {} key(s) changed", version, keys.size());
+        }
+    }
+}
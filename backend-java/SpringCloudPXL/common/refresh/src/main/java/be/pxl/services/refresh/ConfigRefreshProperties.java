@@ -0,0 +1,12 @@
+package be.pxl.services.refresh;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "config-refresh")
+public class ConfigRefreshProperties {
+    // poll config-service for a new version; POST /actuator/refresh is the push alternative
+    private boolean poll = false;
+    private String serverUrl = "http://localhost:8088";
+}
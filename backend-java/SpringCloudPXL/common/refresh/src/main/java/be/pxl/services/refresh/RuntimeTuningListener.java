@@ -0,0 +1,70 @@
+package be.pxl.services.refresh;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * Applies refreshed tuning properties that Spring Cloud does not rebind by itself. @ConfigurationProperties
+ * beans and logging.level.* are rebound automatically, but the Hikari pool is never rebound, so its runtime
+ * adjustable settings are pushed through the pool's MXBean. The pool grows or shrinks lazily; borrowed
+ * connections are left alone.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RuntimeTuningListener {
+    private static final String HIKARI = "spring.datasource.hikari.";
+
+    private final DataSource dataSource;
+    private final Environment environment;
+
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        Set<String> keys = new TreeSet<>(event.getKeys());
+        log.info("Refreshed configuration keys: {}", keys);
+        if (keys.stream().anyMatch(key -> key.startsWith(HIKARI))) {
+            resizePool();
+        }
+    }
+
+    private void resizePool() {
+        HikariConfigMXBean pool;
+        try {
+            pool = dataSource.unwrap(HikariDataSource.class).getHikariConfigMXBean();
+        } catch (SQLException e) {
+            log.warn("Data source is not a Hikari pool; pool settings need a restart");
+            return;
+        }
+        apply("maximum-pool-size", Integer.class, pool::setMaximumPoolSize);
+        if (environment.containsProperty(HIKARI + "minimum-idle")) {
+            apply("minimum-idle", Integer.class, pool::setMinimumIdle);
+        } else {
+            // unset means "same as the maximum", as Hikari does at startup
+            pool.setMinimumIdle(pool.getMaximumPoolSize());
+        }
+        apply("connection-timeout", Long.class, pool::setConnectionTimeout);
+        apply("idle-timeout", Long.class, pool::setIdleTimeout);
+        apply("max-lifetime", Long.class, pool::setMaxLifetime);
+        log.info("Connection pool now allows {} connection(s), {} kept idle",
+                pool.getMaximumPoolSize(), pool.getMinimumIdle());
+    }
+
+    private <T> void apply(String property, Class<T> type, Consumer<T> setter) {
+        T value = environment.getProperty(HIKARI + property, type);
+        if (value != null) {
+            setter.accept(value);
+        }
+    }
+}
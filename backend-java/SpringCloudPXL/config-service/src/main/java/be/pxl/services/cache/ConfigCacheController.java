@@ -0,0 +1,27 @@
+package be.pxl.services.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/cache")
+@RequiredArgsConstructor
+public class ConfigCacheController {
+    private final ConfigResponseCache cache;
+
+    @GetMapping
+    @ResponseStatus(HttpStatus.OK)
+    public Map<String, Long> getStatus() {
+        return Map.of("generation", cache.getGeneration().get(), "entries", (long) cache.size());
+    }
+
+    // call after editing the property files; clients polling with If-None-Match pick up the change next round
+    @PostMapping("/refresh")
+    @ResponseStatus(HttpStatus.OK)
+    public Map<String, Long> refresh() {
+        return Map.of("generation", cache.invalidate());
+    }
+}
@@ -0,0 +1,14 @@
+package be.pxl.services.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "config-cache")
+public class ConfigCacheProperties {
+    private boolean enabled = true;
+    // upper bound on how long an edited file can go unnoticed when nobody calls POST /cache/refresh
+    private Duration ttl = Duration.ofMinutes(5);
+}
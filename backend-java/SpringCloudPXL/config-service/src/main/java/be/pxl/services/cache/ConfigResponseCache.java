@@ -0,0 +1,72 @@
+package be.pxl.services.cache;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rendered configuration responses, keyed by request. Every entry carries a content hash used as its version, so
+ * clients can ask "has anything changed?" with If-None-Match instead of downloading and re-applying everything.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConfigResponseCache {
+    private final ConfigCacheProperties properties;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    @Getter
+    private final AtomicLong generation = new AtomicLong();
+
+    public Entry get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.getLoadedAt().plus(properties.getTtl()).isBefore(Instant.now())) {
+            return null;
+        }
+        return entry;
+    }
+
+    public Entry put(String key, String contentType, byte[] body) {
+        Entry entry = new Entry(contentType, body, version(body), Instant.now());
+        entries.put(key, entry);
+        return entry;
+    }
+
+    public long invalidate() {
+        entries.clear();
+        return generation.incrementAndGet();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static String version(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return HexFormat.of().formatHex(digest, 0, 12);
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(new String(body, StandardCharsets.UTF_8).hashCode());
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Entry {
+        private final String contentType;
+        private final byte[] body;
+        private final String version;
+        private final Instant loadedAt;
+
+        public String getETag() {
+            return "\"" + version + "\"";
+        }
+    }
+}
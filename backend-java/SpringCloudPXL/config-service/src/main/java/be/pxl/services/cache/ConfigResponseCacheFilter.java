@@ -0,0 +1,61 @@
+package be.pxl.services.cache;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+/**
+ * Serves configuration from {@link ConfigResponseCache} instead of re-reading and re-merging the property
+ * files on every request, and answers conditional requests with 304 when the version did not change.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConfigResponseCacheFilter extends OncePerRequestFilter {
+    public static final String VERSION_HEADER = "X-Config-Version";
+
+    private final ConfigResponseCache cache;
+    private final ConfigCacheProperties properties;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return !properties.isEnabled()
+                || !HttpMethod.GET.matches(request.getMethod())
+                || path.startsWith("/actuator") || path.startsWith("/cache");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = request.getRequestURI() + "?" + request.getQueryString() + "|" + request.getHeader(HttpHeaders.ACCEPT);
+        ConfigResponseCache.Entry entry = cache.get(key);
+        if (entry == null) {
+            ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+            filterChain.doFilter(request, wrapper);
+            if (wrapper.getStatus() != HttpServletResponse.SC_OK) {
+                wrapper.copyBodyToResponse();
+                return;
+            }
+            entry = cache.put(key, wrapper.getContentType(), wrapper.getContentAsByteArray());
+        }
+
+        response.setHeader(HttpHeaders.ETAG, entry.getETag());
+        response.setHeader(VERSION_HEADER, entry.getVersion());
+        if (entry.getETag().equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setContentType(entry.getContentType());
+        response.setContentLength(entry.getBody().length);
+        response.getOutputStream().write(entry.getBody());
+    }
+}
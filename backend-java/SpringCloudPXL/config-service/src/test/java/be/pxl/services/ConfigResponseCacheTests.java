@@ -0,0 +1,64 @@
+package be.pxl.services;
+
+import be.pxl.services.cache.ConfigCacheProperties;
+import be.pxl.services.cache.ConfigResponseCache;
+import be.pxl.services.cache.ConfigResponseCacheFilter;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConfigResponseCacheTests {
+    private final ConfigCacheProperties properties = new ConfigCacheProperties();
+    private final ConfigResponseCache cache = new ConfigResponseCache(properties);
+    private final ConfigResponseCacheFilter filter = new ConfigResponseCacheFilter(cache, properties);
+    private final AtomicInteger renders = new AtomicInteger();
+    private String config = "{\"name\":\"employee-service\",\"propertySources\":[]}";
+
+    private final FilterChain repository = (request, response) -> {
+        renders.incrementAndGet();
+        response.setContentType("application/json");
+        response.getWriter().write(config);
+    };
+
+    private MockHttpServletResponse get(String ifNoneMatch) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/employee-service/default");
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, repository);
+        return response;
+    }
+
+    @Test
+    public void testConfigIsRenderedOnceAndVersioned() throws Exception {
+        MockHttpServletResponse first = get(null);
+        MockHttpServletResponse second = get(null);
+
+        assertEquals(1, renders.get());
+        assertEquals(config, second.getContentAsString());
+        assertNotNull(first.getHeader("ETag"));
+        assertEquals(first.getHeader("ETag"), second.getHeader("ETag"));
+        assertEquals(304, get(first.getHeader("ETag")).getStatus());
+    }
+
+    @Test
+    public void testRefreshPicksUpChangedConfig() throws Exception {
+        String etag = get(null).getHeader("ETag");
+        config = "{\"name\":\"employee-service\",\"propertySources\":[{\"name\":\"changed\"}]}";
+
+        assertEquals(304, get(etag).getStatus());
+        cache.invalidate();
+        MockHttpServletResponse changed = get(etag);
+
+        assertEquals(200, changed.getStatus());
+        assertEquals(config, changed.getContentAsString());
+        assertNotEquals(etag, changed.getHeader("ETag"));
+        assertEquals(2, renders.get());
+    }
+}
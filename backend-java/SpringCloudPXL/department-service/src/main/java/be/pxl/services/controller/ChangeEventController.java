@@ -0,0 +1,32 @@
+package be.pxl.services.controller;
+
+import be.pxl.services.events.ChangeEventLog;
+import be.pxl.services.events.ChangeEventPage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/department/events")
+@RequiredArgsConstructor
+public class ChangeEventController {
+    private final ChangeEventLog changeEventLog;
+
+    @GetMapping
+    @ResponseStatus(HttpStatus.OK)
+    public ChangeEventPage getEvents(@RequestParam(defaultValue = "0") long after,
+                                     @RequestParam(defaultValue = "500") int limit) {
+        return changeEventLog.readAfter(after, limit);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam(required = false) Long after,
+                             @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        if (lastEventId != null) {
+            return changeEventLog.subscribe(lastEventId);
+        }
+        return changeEventLog.subscribe(after != null ? after : changeEventLog.getLastSequence());
+    }
+}
@@ -1,11 +1,17 @@
 package be.pxl.services.controller;
 
+import be.pxl.services.domain.dto.BulkChangeResponse;
+import be.pxl.services.domain.dto.DepartmentMoveRequest;
 import be.pxl.services.domain.dto.DepartmentRequest;
 import be.pxl.services.domain.dto.DepartmentResponse;
 import be.pxl.services.services.IDepartmentService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -21,22 +27,62 @@ public class DepartmentController {
         departmentService.add(departmentRequest);
     }
 
+    // conditional GETs answer 304 from a version lookup before any department is loaded or serialized
     @GetMapping("/{id}")
-    @ResponseStatus(HttpStatus.OK)
-    public DepartmentResponse findById(@PathVariable Long id) {
-        return departmentService.findById(id);
+    public ResponseEntity<DepartmentResponse> findById(@PathVariable Long id, WebRequest request) {
+        String etag = departmentService.getETag(id);
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+        DepartmentResponse department = departmentService.findById(id);
+        return ResponseEntity.ok().eTag(etag).body(department);
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<DepartmentResponse> update(@PathVariable Long id,
+                                                     @RequestBody DepartmentRequest departmentRequest,
+                                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        DepartmentResponse department = departmentService.update(id, departmentRequest, expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(versionETag(department.getVersion())).body(department);
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void delete(@PathVariable Long id,
+                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        departmentService.delete(id, expectedVersion(ifMatch));
     }
 
     @GetMapping("/")
-    @ResponseStatus(HttpStatus.OK)
-    public List<DepartmentResponse> findAll() {
-        return departmentService.findAll();
+    public ResponseEntity<List<DepartmentResponse>> findAll(WebRequest request) {
+        String etag = departmentService.getAllETag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(departmentService.findAll());
     }
 
     @GetMapping("/organization/{organizationId}")
+    public ResponseEntity<List<DepartmentResponse>> findByOrganization(@PathVariable Long organizationId,
+                                                                       WebRequest request) {
+        String etag = departmentService.getByOrganizationETag(organizationId);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(departmentService.findByOrganization(organizationId));
+    }
+
+    @PostMapping("/organization/{organizationId}/move")
     @ResponseStatus(HttpStatus.OK)
-    public List<DepartmentResponse> findByOrganization(@PathVariable Long organizationId) {
-        return departmentService.findByOrganization(organizationId);
+    public BulkChangeResponse moveAllOfOrganization(@PathVariable Long organizationId,
+                                                    @RequestBody DepartmentMoveRequest moveRequest) {
+        return departmentService.moveAllOfOrganization(organizationId, moveRequest);
+    }
+
+    @DeleteMapping("/organization/{organizationId}")
+    @ResponseStatus(HttpStatus.OK)
+    public BulkChangeResponse deleteAllOfOrganization(@PathVariable Long organizationId) {
+        return departmentService.deleteAllOfOrganization(organizationId);
     }
 
     @GetMapping("/organization/{organizationId}/with-employees")
@@ -44,4 +90,30 @@ public class DepartmentController {
     public List<DepartmentResponse> findByOrganizationWithEmployees(@PathVariable Long organizationId) {
         return departmentService.findByOrganizationWithEmployees(organizationId);
     }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public void handleConflict() {
+    }
+
+    // writes answer with the version their own flush produced, so no lookup runs after the commit
+    private static String versionETag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    // If-Match carries the ETag handed out by the GET, i.e. the quoted entity version
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String version = ifMatch.trim();
+        if (version.startsWith("W/")) {
+            version = version.substring(2);
+        }
+        try {
+            return Long.valueOf(version.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new OptimisticLockingFailureException("If-Match does not match any version");
+        }
+    }
 }
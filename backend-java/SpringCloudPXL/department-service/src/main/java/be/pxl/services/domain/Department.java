@@ -6,11 +6,16 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.List;
 
 @Entity
 @Table(name = "department")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "department")
 @Data
 @Builder
 @NoArgsConstructor
@@ -21,6 +26,9 @@ public class Department {
     private Long id;
     private Long organizationId;
     private String name;
+    @Version
+    @ColumnDefault("0")
+    private Long version;
     @Transient
     private List<Employee> employees;
 }
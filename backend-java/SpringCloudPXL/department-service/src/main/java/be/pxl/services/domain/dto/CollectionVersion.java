@@ -0,0 +1,25 @@
+package be.pxl.services.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Aggregate over the rows of a collection that changes whenever a row is added, removed or updated, so it
+ * can serve as the collection's ETag without loading the rows. The checksum adds up a hash of every row's
+ * (id, version) pair: unlike plain sums of ids and versions, two different collections only share it by an
+ * accidental 32-bit hash collision.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CollectionVersion {
+    private long count;
+    private long checksum;
+
+    public String toETag() {
+        return "\"" + count + "-" + Long.toHexString(checksum) + "\"";
+    }
+}
@@ -1,6 +1,7 @@
 package be.pxl.services.domain.dto;
 
 import be.pxl.services.domain.Employee;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -17,4 +18,7 @@ public class DepartmentResponse {
     private Long organizationId;
     private String name;
     private List<Employee> employees;
+    // the entity version the response was read or written at, handed out as the ETag rather than in the body
+    @JsonIgnore
+    private Long version;
 }
@@ -0,0 +1,22 @@
+package be.pxl.services.events;
+
+import be.pxl.services.domain.dto.DepartmentResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeEvent {
+    private long sequence;
+    private ChangeType type;
+    private Long entityId;
+    private Long organizationId;
+    private Instant timestamp;
+    private DepartmentResponse payload;
+}
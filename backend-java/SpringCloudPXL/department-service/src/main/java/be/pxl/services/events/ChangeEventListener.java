@@ -0,0 +1,16 @@
+package be.pxl.services.events;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+@RequiredArgsConstructor
+public class ChangeEventListener {
+    private final ChangeEventLog changeEventLog;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDepartmentChanged(DepartmentChanged change) {
+        changeEventLog.append(change.getType(), change.getDepartmentId(), change.getOrganizationId(), change.getDepartment());
+    }
+}
@@ -0,0 +1,25 @@
+package be.pxl.services.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A slice of the change event log. {@code firstSequence} is the oldest sequence still retained and
+ * {@code lastSequence} the newest one written, so a subscriber can detect that it fell behind the
+ * retention window and has to resynchronise. {@code epoch} changes whenever the log restarts and its
+ * sequences start over.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeEventPage {
+    private String epoch;
+    private long firstSequence;
+    private long lastSequence;
+    private List<ChangeEvent> events;
+}
@@ -0,0 +1,7 @@
+package be.pxl.services.events;
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,14 @@
+package be.pxl.services.events;
+
+import be.pxl.services.domain.dto.DepartmentResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class DepartmentChanged {
+    private final ChangeType type;
+    private final Long departmentId;
+    private final Long organizationId;
+    private final DepartmentResponse department;
+}
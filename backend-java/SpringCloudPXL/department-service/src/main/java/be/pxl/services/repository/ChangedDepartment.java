@@ -0,0 +1,12 @@
+package be.pxl.services.repository;
+
+/**
+ * A department row as changed by a set-based statement, with the organization it belonged to before.
+ * The organization is empty for deleted rows.
+ */
+public interface ChangedDepartment {
+    Long getId();
+    Long getPreviousOrganizationId();
+    Long getOrganizationId();
+    String getName();
+}
@@ -1,10 +1,54 @@
 package be.pxl.services.repository;
 
 import be.pxl.services.domain.Department;
+import be.pxl.services.domain.dto.CollectionVersion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
 
+// read queries use the query cache; Hibernate invalidates it on its own writes to department, the set-based
+// native statements below evict explicitly (see DepartmentService)
 public interface DepartmentRepository extends JpaRepository<Department, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Department> findAll();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Department> findByOrganizationId(Long organizationId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT d.version FROM Department d WHERE d.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new be.pxl.services.domain.dto.CollectionVersion(count(d), coalesce(sum(cast("
+            + "function('hashtext', concat(cast(d.id as String), ':', cast(d.version as String))) as Long)), 0)) "
+            + "FROM Department d")
+    CollectionVersion findCollectionVersion();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new be.pxl.services.domain.dto.CollectionVersion(count(d), coalesce(sum(cast("
+            + "function('hashtext', concat(cast(d.id as String), ':', cast(d.version as String))) as Long)), 0)) "
+            + "FROM Department d WHERE d.organizationId = :organizationId")
+    CollectionVersion findCollectionVersionByOrganizationId(@Param("organizationId") Long organizationId);
+
+    // one statement each: the rows are changed and returned together with their previous organization
+    @Query(value = "WITH moving AS (SELECT id, organization_id FROM department "
+            + "WHERE organization_id = :fromOrganizationId FOR UPDATE) "
+            + "UPDATE department d SET organization_id = :toOrganizationId, version = d.version + 1 "
+            + "FROM moving m WHERE d.id = m.id "
+            + "RETURNING d.id, m.organization_id AS \"previousOrganizationId\", "
+            + "d.organization_id AS \"organizationId\", d.name", nativeQuery = true)
+    List<ChangedDepartment> moveAllOfOrganization(@Param("fromOrganizationId") Long fromOrganizationId,
+                                                  @Param("toOrganizationId") Long toOrganizationId);
+
+    @Query(value = "DELETE FROM department d WHERE d.organization_id = :organizationId "
+            + "RETURNING d.id, d.organization_id AS \"previousOrganizationId\", "
+            + "CAST(NULL AS bigint) AS \"organizationId\", d.name", nativeQuery = true)
+    List<ChangedDepartment> deleteAllOfOrganization(@Param("organizationId") Long organizationId);
 }
@@ -0,0 +1,53 @@
+package be.pxl.services.rpc;
+
+import be.pxl.services.domain.dto.DepartmentResponse;
+import be.pxl.services.rpc.proto.DepartmentBatch;
+import be.pxl.services.rpc.proto.DepartmentMessage;
+import be.pxl.services.rpc.proto.DepartmentRpcGrpc;
+import be.pxl.services.rpc.proto.OrganizationDepartmentsQuery;
+import be.pxl.services.services.IDepartmentService;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class DepartmentRpcService extends DepartmentRpcGrpc.DepartmentRpcImplBase {
+    private final IDepartmentService departmentService;
+    private final RpcServerProperties properties;
+
+    @Override
+    public void streamByOrganization(OrganizationDepartmentsQuery request,
+                                     StreamObserver<DepartmentBatch> responseObserver) {
+        List<DepartmentResponse> departments;
+        try {
+            departments = departmentService.findByOrganization(request.getOrganizationId());
+        } catch (RuntimeException e) {
+            responseObserver.onError(Status.INTERNAL.withDescription(e.getMessage()).withCause(e).asRuntimeException());
+            return;
+        }
+        int batchSize = Math.max(1, properties.getBatchSize());
+        for (int from = 0; from < departments.size(); from += batchSize) {
+            DepartmentBatch.Builder batch = DepartmentBatch.newBuilder();
+            departments.subList(from, Math.min(departments.size(), from + batchSize))
+                    .forEach(department -> batch.addDepartments(toMessage(department)));
+            responseObserver.onNext(batch.build());
+        }
+        responseObserver.onCompleted();
+    }
+
+    private static DepartmentMessage toMessage(DepartmentResponse department) {
+        DepartmentMessage.Builder message = DepartmentMessage.newBuilder()
+                .setId(department.getId());
+        if (department.getOrganizationId() != null) {
+            message.setOrganizationId(department.getOrganizationId());
+        }
+        if (department.getName() != null) {
+            message.setName(department.getName());
+        }
+        return message.build();
+    }
+}
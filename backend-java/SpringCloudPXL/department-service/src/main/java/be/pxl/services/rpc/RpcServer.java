@@ -0,0 +1,68 @@
+package be.pxl.services.rpc;
+
+import io.grpc.BindableService;
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * gRPC server for the internal binary interface (see src/main/proto). Runs next to the REST API on its own port,
+ * starts with the application context and drains in-flight calls when it stops.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RpcServer implements SmartLifecycle {
+    private final RpcServerProperties properties;
+    private final List<BindableService> services;
+    private Server server;
+
+    @Override
+    public synchronized void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        NettyServerBuilder builder = NettyServerBuilder.forPort(properties.getPort());
+        services.forEach(builder::addService);
+        try {
+            server = builder.build().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start the gRPC server on port " + properties.getPort(), e);
+        }
+        log.info("gRPC server listening on port {}", server.getPort());
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        server.shutdown();
+        try {
+            if (!server.awaitTermination(properties.getShutdownGracePeriod().toMillis(), TimeUnit.MILLISECONDS)) {
+                server.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            server.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        server = null;
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return server != null;
+    }
+
+    public synchronized int getPort() {
+        return server == null ? -1 : server.getPort();
+    }
+}
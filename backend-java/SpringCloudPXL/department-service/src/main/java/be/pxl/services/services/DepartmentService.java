@@ -1,19 +1,34 @@
 package be.pxl.services.services;
 
 import be.pxl.services.domain.Department;
+import be.pxl.services.domain.dto.BulkChangeResponse;
+import be.pxl.services.domain.dto.DepartmentMoveRequest;
 import be.pxl.services.domain.dto.DepartmentRequest;
 import be.pxl.services.domain.dto.DepartmentResponse;
+import be.pxl.services.events.ChangeType;
+import be.pxl.services.events.DepartmentChanged;
+import be.pxl.services.repository.ChangedDepartment;
 import be.pxl.services.repository.DepartmentRepository;
+import jakarta.persistence.EntityManagerFactory;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class DepartmentService implements IDepartmentService {
     private final DepartmentRepository departmentRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManagerFactory entityManagerFactory;
 
     @Override
     public void add(DepartmentRequest departmentRequest) {
@@ -22,16 +37,120 @@ public class DepartmentService implements IDepartmentService {
                 .name(departmentRequest.getName())
                 .build();
         departmentRepository.save(department);
+        eventPublisher.publishEvent(new DepartmentChanged(ChangeType.CREATED, department.getId(),
+                department.getOrganizationId(), mapToDepartmentResponse(department, false)));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public DepartmentResponse findById(Long id) {
         return departmentRepository.findById(id)
                 .map(d -> mapToDepartmentResponse(d, false))
                 .orElseThrow(() -> new RuntimeException("Department not found"));
     }
 
+    private Department findForUpdate(Long id, Long expectedVersion) {
+        Department department = departmentRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Department not found"));
+        if (expectedVersion != null && !expectedVersion.equals(department.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Department.class, id);
+        }
+        return department;
+    }
+
+    // a move to another organization is published as a removal from the old one, so its read model drops it
+    private void publishUpdated(Long previousOrganizationId, DepartmentResponse department) {
+        if (previousOrganizationId != null && !previousOrganizationId.equals(department.getOrganizationId())) {
+            eventPublisher.publishEvent(new DepartmentChanged(ChangeType.DELETED, department.getId(),
+                    previousOrganizationId, department));
+        }
+        eventPublisher.publishEvent(new DepartmentChanged(ChangeType.UPDATED, department.getId(),
+                department.getOrganizationId(), department));
+    }
+
+    @Override
+    @Transactional
+    public DepartmentResponse update(Long id, DepartmentRequest departmentRequest, Long expectedVersion) {
+        Department department = findForUpdate(id, expectedVersion);
+        Long previousOrganizationId = department.getOrganizationId();
+        department.setOrganizationId(departmentRequest.getOrganizationId());
+        department.setName(departmentRequest.getName());
+        DepartmentResponse response = mapToDepartmentResponse(departmentRepository.saveAndFlush(department), false);
+        publishUpdated(previousOrganizationId, response);
+        return response;
+    }
+
+    @Override
+    @Transactional
+    public void delete(Long id, Long expectedVersion) {
+        Department department = findForUpdate(id, expectedVersion);
+        departmentRepository.delete(department);
+        departmentRepository.flush();
+        eventPublisher.publishEvent(new DepartmentChanged(ChangeType.DELETED, department.getId(),
+                department.getOrganizationId(), mapToDepartmentResponse(department, false)));
+    }
+
+    @Override
+    @Transactional
+    public BulkChangeResponse moveAllOfOrganization(Long organizationId, DepartmentMoveRequest moveRequest) {
+        List<ChangedDepartment> moved = departmentRepository.moveAllOfOrganization(organizationId,
+                moveRequest.getOrganizationId());
+        afterBulkChange();
+        moved.forEach(department -> publishUpdated(department.getPreviousOrganizationId(),
+                mapToDepartmentResponse(department)));
+        return BulkChangeResponse.builder().affected(moved.size()).build();
+    }
+
+    @Override
+    @Transactional
+    public BulkChangeResponse deleteAllOfOrganization(Long organizationId) {
+        List<ChangedDepartment> deleted = departmentRepository.deleteAllOfOrganization(organizationId);
+        afterBulkChange();
+        deleted.forEach(department -> eventPublisher.publishEvent(new DepartmentChanged(ChangeType.DELETED,
+                department.getId(), department.getPreviousOrganizationId(), mapToDepartmentResponse(department))));
+        return BulkChangeResponse.builder().affected(deleted.size()).build();
+    }
+
+    // set-based statements bypass Hibernate, so nothing cached for departments can be trusted afterwards; evicted
+    // again after commit because a concurrent read may re-cache the old rows in between
+    private void afterBulkChange() {
+        evictCaches();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictCaches();
+            }
+        });
+    }
+
+    private void evictCaches() {
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        cache.evictEntityData(Department.class);
+        cache.evictQueryRegions();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String getETag(Long id) {
+        return departmentRepository.findVersionById(id)
+                .map(version -> "\"" + version + "\"")
+                .orElse(null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String getAllETag() {
+        return departmentRepository.findCollectionVersion().toETag();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String getByOrganizationETag(Long organizationId) {
+        return departmentRepository.findCollectionVersionByOrganizationId(organizationId).toETag();
+    }
+
     @Override
+    @Transactional(readOnly = true)
     public List<DepartmentResponse> findAll() {
         return departmentRepository.findAll()
                 .stream()
@@ -40,6 +159,7 @@ public class DepartmentService implements IDepartmentService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<DepartmentResponse> findByOrganization(Long organizationId) {
         return departmentRepository.findByOrganizationId(organizationId)
                 .stream()
@@ -59,10 +179,20 @@ public class DepartmentService implements IDepartmentService {
         DepartmentResponse.DepartmentResponseBuilder builder = DepartmentResponse.builder()
                 .id(department.getId())
                 .organizationId(department.getOrganizationId())
-                .name(department.getName());
+                .name(department.getName())
+                .version(department.getVersion());
         if (includeEmployees) {
             builder.employees(department.getEmployees());
         }
         return builder.build();
     }
+
+    private DepartmentResponse mapToDepartmentResponse(ChangedDepartment department) {
+        return DepartmentResponse.builder()
+                .id(department.getId())
+                .organizationId(Objects.requireNonNullElse(department.getOrganizationId(),
+                        department.getPreviousOrganizationId()))
+                .name(department.getName())
+                .build();
+    }
 }
@@ -1,5 +1,7 @@
 package be.pxl.services.services;
 
+import be.pxl.services.domain.dto.BulkChangeResponse;
+import be.pxl.services.domain.dto.DepartmentMoveRequest;
 import be.pxl.services.domain.dto.DepartmentRequest;
 import be.pxl.services.domain.dto.DepartmentResponse;
 
@@ -10,6 +12,21 @@ public interface IDepartmentService {
 
     DepartmentResponse findById(Long id);
 
+    // expectedVersion is optional; a mismatch fails with an optimistic locking failure
+    DepartmentResponse update(Long id, DepartmentRequest departmentRequest, Long expectedVersion);
+
+    void delete(Long id, Long expectedVersion);
+
+    BulkChangeResponse moveAllOfOrganization(Long organizationId, DepartmentMoveRequest moveRequest);
+
+    BulkChangeResponse deleteAllOfOrganization(Long organizationId);
+
+    String getETag(Long id);
+
+    String getAllETag();
+
+    String getByOrganizationETag(Long organizationId);
+
     List<DepartmentResponse> findAll();
 
     List<DepartmentResponse> findByOrganization(Long organizationId);
@@ -1,9 +1,20 @@
 package be.pxl.services;
 
 import be.pxl.services.domain.Department;
+import be.pxl.services.domain.dto.DepartmentMoveRequest;
 import be.pxl.services.domain.dto.DepartmentRequest;
+import be.pxl.services.events.ChangeEventLog;
 import be.pxl.services.repository.DepartmentRepository;
+import be.pxl.services.rpc.RpcServer;
+import be.pxl.services.rpc.proto.DepartmentMessage;
+import be.pxl.services.rpc.proto.DepartmentRpcGrpc;
+import be.pxl.services.rpc.proto.OrganizationDepartmentsQuery;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.grpc.ManagedChannel;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,11 +29,14 @@ import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -35,6 +49,12 @@ public class DepartmentTests {
     private ObjectMapper objectMapper;
     @Autowired
     private DepartmentRepository departmentRepository;
+    @Autowired
+    private ChangeEventLog changeEventLog;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private RpcServer rpcServer;
 
     @Container
     private static final PostgreSQLContainer postgreSQLContainer =
@@ -45,6 +65,13 @@ public class DepartmentTests {
         registry.add("spring.datasource.url", postgreSQLContainer::getJdbcUrl);
         registry.add("spring.datasource.username", postgreSQLContainer::getUsername);
         registry.add("spring.datasource.password", postgreSQLContainer::getPassword);
+        registry.add("spring.jpa.properties.hibernate.cache.use_second_level_cache", () -> "true");
+        registry.add("spring.jpa.properties.hibernate.cache.use_query_cache", () -> "true");
+        registry.add("spring.jpa.properties.hibernate.cache.region.factory_class", () -> "jcache");
+        registry.add("spring.jpa.properties.hibernate.javax.cache.missing_cache_strategy", () -> "fail");
+        registry.add("spring.jpa.properties.jakarta.persistence.sharedCache.mode", () -> "ENABLE_SELECTIVE");
+        registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> "true");
+        registry.add("rpc.server.port", () -> "0");
     }
 
     @BeforeEach
@@ -170,4 +197,159 @@ public class DepartmentTests {
         assertEquals(2, organizationDepartments.size());
         assertTrue(organizationDepartments.stream().allMatch(d -> d.getOrganizationId().equals(1L)));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCreateDepartmentPublishesChangeEvent() throws Exception {
+        long after = changeEventLog.getLastSequence();
+        DepartmentRequest departmentRequest = DepartmentRequest.builder()
+                .name("Legal Department")
+                .organizationId(5L)
+                .build();
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/department/")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(departmentRequest)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/department/events?after=" + after))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastSequence").value(after + 1))
+                .andExpect(jsonPath("$.events.length()").value(1))
+                .andExpect(jsonPath("$.events[0].type").value("CREATED"))
+                .andExpect(jsonPath("$.events[0].payload.name").value("Legal Department"));
+    }
+
+    @Test
+    public void testConditionalGetDepartments() throws Exception {
+        Department department = departmentRepository.save(Department.builder()
+                .name("Finance")
+                .organizationId(4L)
+                .build());
+
+        String etag = mockMvc.perform(MockMvcRequestBuilders.get("/api/department/" + department.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/department/" + department.getId())
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        String collectionEtag = mockMvc.perform(MockMvcRequestBuilders.get("/api/department/organization/4"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        departmentRepository.save(Department.builder()
+                .name("Legal")
+                .organizationId(4L)
+                .build());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/department/organization/4")
+                        .header("If-None-Match", collectionEtag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    public void testUpdateMoveAndDeleteDepartments() throws Exception {
+        Department finance = departmentRepository.save(Department.builder().name("Finance").organizationId(6L).build());
+        departmentRepository.save(Department.builder().name("Legal").organizationId(6L).build());
+
+        String etag = mockMvc.perform(MockMvcRequestBuilders.get("/api/department/" + finance.getId()))
+                .andReturn().getResponse().getHeader("ETag");
+        DepartmentRequest rename = DepartmentRequest.builder().name("Accounting").organizationId(6L).build();
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/department/" + finance.getId())
+                        .header("If-Match", etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(rename)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Accounting"));
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/department/" + finance.getId())
+                        .header("If-Match", etag))
+                .andExpect(status().isConflict());
+
+        long after = changeEventLog.getLastSequence();
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/department/organization/6/move")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(DepartmentMoveRequest.builder()
+                                .organizationId(9L).build())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(2));
+        assertEquals(2, departmentRepository.findByOrganizationId(9L).size());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/department/events?after=" + after))
+                .andExpect(jsonPath("$.events.length()").value(4))
+                .andExpect(jsonPath("$.events[0].type").value("DELETED"))
+                .andExpect(jsonPath("$.events[0].organizationId").value(6))
+                .andExpect(jsonPath("$.events[1].type").value("UPDATED"))
+                .andExpect(jsonPath("$.events[1].organizationId").value(9));
+
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/department/organization/9"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(2));
+        assertTrue(departmentRepository.findAll().isEmpty());
+    }
+
+    @Test
+    public void testRepeatedReadsAreServedFromSecondLevelCache() throws Exception {
+        Department finance = departmentRepository.save(Department.builder().name("Finance").organizationId(4L).build());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/department/" + finance.getId()))
+                .andExpect(status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/department/organization/4"))
+                .andExpect(status().isOk());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/department/" + finance.getId()))
+                    .andExpect(jsonPath("$.name").value("Finance"));
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/department/organization/4"))
+                    .andExpect(jsonPath("$[0].name").value("Finance"));
+        }
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getSecondLevelCacheHitCount() >= 10);
+
+        String etag = mockMvc.perform(MockMvcRequestBuilders.get("/api/department/" + finance.getId()))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/department/" + finance.getId())
+                        .header("If-Match", etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(DepartmentRequest.builder()
+                                .name("Accounting").organizationId(4L).build())))
+                .andExpect(status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/department/" + finance.getId()))
+                .andExpect(jsonPath("$.name").value("Accounting"));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/department/organization/4"))
+                .andExpect(jsonPath("$[0].name").value("Accounting"));
+
+        // the set-based move bypasses Hibernate, so the cached query results must not survive it
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/department/organization/4/move")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(DepartmentMoveRequest.builder()
+                                .organizationId(5L).build())))
+                .andExpect(jsonPath("$.affected").value(1));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/department/organization/4"))
+                .andExpect(jsonPath("$.length()").value(0));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/department/" + finance.getId()))
+                .andExpect(jsonPath("$.organizationId").value(5));
+    }
+
+    @Test
+    public void testStreamDepartmentsOverRpc() {
+        departmentRepository.saveAll(List.of(
+                Department.builder().organizationId(60L).name("Research").build(),
+                Department.builder().organizationId(60L).name("Support").build(),
+                Department.builder().organizationId(61L).name("Elsewhere").build()));
+
+        ManagedChannel channel = NettyChannelBuilder.forAddress("localhost", rpcServer.getPort()).usePlaintext().build();
+        try {
+            List<DepartmentMessage> departments = new ArrayList<>();
+            DepartmentRpcGrpc.newBlockingStub(channel)
+                    .streamByOrganization(OrganizationDepartmentsQuery.newBuilder().setOrganizationId(60L).build())
+                    .forEachRemaining(batch -> departments.addAll(batch.getDepartmentsList()));
+            assertEquals(List.of("Research", "Support"),
+                    departments.stream().map(DepartmentMessage::getName).sorted().toList());
+            assertTrue(departments.stream().allMatch(department -> department.getOrganizationId() == 60L));
+        } finally {
+            channel.shutdownNow();
+        }
+    }
+}
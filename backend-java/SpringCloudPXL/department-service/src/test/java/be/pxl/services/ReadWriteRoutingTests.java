@@ -0,0 +1,130 @@
+package be.pxl.services;
+
+import be.pxl.services.datasource.ReplicaDataSource;
+import be.pxl.services.domain.Department;
+import be.pxl.services.domain.dto.DepartmentRequest;
+import be.pxl.services.repository.DepartmentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// the replica is a second, independent instance: rows written to it directly show which database served a read
+@SpringBootTest(properties = {
+        "datasource-routing.enabled=true",
+        "datasource-routing.sticky-window=5s",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false"
+})
+@Testcontainers
+@AutoConfigureMockMvc
+public class ReadWriteRoutingTests {
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private DepartmentRepository departmentRepository;
+    @Autowired
+    private ReplicaDataSource replicaDataSource;
+
+    @Container
+    private static final PostgreSQLContainer primary = new PostgreSQLContainer("postgres:18-alpine");
+    @Container
+    private static final PostgreSQLContainer replica = new PostgreSQLContainer("postgres:18-alpine");
+
+    @DynamicPropertySource
+    static void registerDataSources(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", primary::getJdbcUrl);
+        registry.add("spring.datasource.username", primary::getUsername);
+        registry.add("spring.datasource.password", primary::getPassword);
+        registry.add("datasource-routing.replicas[0].url", replica::getJdbcUrl);
+        registry.add("datasource-routing.replicas[0].username", replica::getUsername);
+        registry.add("datasource-routing.replicas[0].password", replica::getPassword);
+        registry.add("rpc.server.port", () -> "0");
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        departmentRepository.deleteAll();
+        try (Connection connection = DriverManager.getConnection(replica.getJdbcUrl(), replica.getUsername(),
+                replica.getPassword()); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS department "
+                    + "(id bigint PRIMARY KEY, organization_id bigint, name varchar(255), version bigint)");
+            statement.execute("TRUNCATE department");
+        }
+    }
+
+    private void copyToReplica(Department department, String name) throws Exception {
+        try (Connection connection = DriverManager.getConnection(replica.getJdbcUrl(), replica.getUsername(),
+                replica.getPassword()); Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO department VALUES (" + department.getId() + ", "
+                    + department.getOrganizationId() + ", '" + name + "', " + department.getVersion() + ")");
+        }
+    }
+
+    @Test
+    public void testReadsGoToReplicaAndWritesToPrimary() throws Exception {
+        Department finance = departmentRepository.save(Department.builder().name("Finance").organizationId(3L).build());
+        copyToReplica(finance, "Finance (replica)");
+        assertEquals(1, replicaDataSource.getHealthyReplicaCount());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/department/" + finance.getId()))
+                .andExpect(jsonPath("$.name").value("Finance (replica)"));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/department/organization/3"))
+                .andExpect(jsonPath("$[0].name").value("Finance (replica)"));
+
+        Cookie pin = mockMvc.perform(MockMvcRequestBuilders.put("/api/department/" + finance.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(DepartmentRequest.builder()
+                                .name("Accounting").organizationId(3L).build())))
+                .andExpect(status().isOk())
+                .andExpect(cookie().exists("primary-until"))
+                .andReturn().getResponse().getCookie("primary-until");
+        assertEquals("Accounting", departmentRepository.findById(finance.getId()).orElseThrow().getName());
+
+        // the writer reads its own write from the primary, everyone else still reads the (lagging) replica
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/department/" + finance.getId()).cookie(pin))
+                .andExpect(jsonPath("$.name").value("Accounting"));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/department/" + finance.getId()))
+                .andExpect(jsonPath("$.name").value("Finance (replica)"));
+    }
+
+    @Test
+    public void testReadsFallBackToPrimaryWithoutHealthyReplica() throws Exception {
+        Department finance = departmentRepository.save(Department.builder().name("Finance").organizationId(3L).build());
+        copyToReplica(finance, "Finance (replica)");
+
+        replica.getDockerClient().pauseContainerCmd(replica.getContainerId()).exec();
+        try {
+            replicaDataSource.checkHealth();
+            assertEquals(0, replicaDataSource.getHealthyReplicaCount());
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/department/" + finance.getId()))
+                    .andExpect(jsonPath("$.name").value("Finance"));
+        } finally {
+            replica.getDockerClient().unpauseContainerCmd(replica.getContainerId()).exec();
+        }
+        replicaDataSource.checkHealth();
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/department/" + finance.getId()))
+                .andExpect(jsonPath("$.name").value("Finance (replica)"));
+    }
+}
@@ -0,0 +1,104 @@
+package be.pxl.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Registers an instance with a local registry running on the fast-discovery settings, loaded from the file the
+ * config server serves, and measures how long it takes for the registration, and later the disappearance of the
+ * instance, to be visible to callers.
+ */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.cloud.config.enabled=false",
+        "eureka.client.register-with-eureka=false",
+        "eureka.client.fetch-registry=false"
+})
+@TestPropertySource(locations = "file:../config-service/src/main/resources/config/application-fast-discovery.properties")
+public class DiscoveryPropagationTests {
+    private static final String APP = "PROPAGATION-TEST";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+    // the test instance registers with the lease the profile gives every instance
+    @Value("${eureka.instance.lease-renewal-interval-in-seconds}")
+    private int renewalIntervalSeconds;
+    @Value("${eureka.instance.lease-expiration-duration-in-seconds}")
+    private int leaseExpirationSeconds;
+
+    @Test
+    public void testInstanceChangesPropagateWithinSeconds() throws Exception {
+        ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor();
+        try {
+            register("instance-1");
+            heartbeats.scheduleAtFixedRate(() -> restTemplate.put("/eureka/apps/" + APP + "/instance-1", null),
+                    renewalIntervalSeconds, renewalIntervalSeconds, TimeUnit.SECONDS);
+            Duration registered = awaitUntil(() -> isListed("instance-1"), Duration.ofSeconds(5));
+            log.info("Registration visible after {} ms", registered.toMillis());
+            // without the read-only response cache a registration is served on the next fetch
+            assertTrue(registered.compareTo(Duration.ofSeconds(1)) < 0, "took " + registered);
+
+            heartbeats.shutdownNow();
+            Duration evicted = awaitUntil(() -> !isListed("instance-1"), Duration.ofSeconds(40));
+            log.info("Dead instance evicted after {} ms", evicted.toMillis());
+            // Eureka expires a lease after twice its duration; the registry never waited for the 90s default
+            assertTrue(evicted.compareTo(Duration.ofSeconds(2L * leaseExpirationSeconds + 8)) < 0,
+                    "took " + evicted);
+        } finally {
+            heartbeats.shutdownNow();
+        }
+    }
+
+    private void register(String instanceId) {
+        String body = """
+                {"instance": {"instanceId": "%s", "hostName": "localhost", "app": "%s", "ipAddr": "127.0.0.1",
+                 "vipAddress": "propagation-test", "status": "UP",
+                 "port": {"$": 8080, "@enabled": "true"},
+                 "dataCenterInfo": {"@class": "com.netflix.appinfo.InstanceInfo$DefaultDataCenterInfo", "name": "MyOwn"},
+                 "leaseInfo": {"renewalIntervalInSecs": %d, "durationInSecs": %d}}}
+                """.formatted(instanceId, APP, renewalIntervalSeconds, leaseExpirationSeconds);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<Void> response = restTemplate.postForEntity("/eureka/apps/" + APP,
+                new HttpEntity<>(body, headers), Void.class);
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+    }
+
+    private boolean isListed(String instanceId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        ResponseEntity<String> response = restTemplate.exchange("/eureka/apps/" + APP, HttpMethod.GET,
+                new HttpEntity<>(headers), String.class);
+        return response.getStatusCode().is2xxSuccessful() && response.getBody().contains(instanceId);
+    }
+
+    private static Duration awaitUntil(BooleanSupplier condition, Duration timeout) throws InterruptedException {
+        long start = System.nanoTime();
+        while (!condition.getAsBoolean()) {
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+            assertTrue(elapsed.compareTo(timeout) < 0, "not observed within " + timeout);
+            Thread.sleep(100);
+        }
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,93 @@
+package be.pxl.services.client;
+
+import feign.Client;
+import feign.http2client.Http2Client;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.cloud.openfeign.loadbalancer.FeignBlockingLoadBalancerClient;
+import org.springframework.cloud.openfeign.loadbalancer.LoadBalancerFeignRequestTransformer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.util.List;
+
+/**
+ * Transport of the Feign clients. Instead of Feign's HttpURLConnection client, a pooled Apache HttpClient 5 keeps
+ * connections alive and reuses them per target instance, closes idle and expired ones, and reports the pool to
+ * Micrometer (httpcomponents.httpclient.pool.*). With feign-transport.http2 the JDK HttpClient is used instead: it
+ * upgrades to cleartext HTTP/2 where the other service allows it and multiplexes requests over one connection.
+ */
+@Configuration
+public class FeignTransportConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "feign-transport", name = "http2", havingValue = "false", matchIfMissing = true)
+    public PoolingHttpClientConnectionManager feignConnectionManager(FeignTransportProperties properties) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.getMaxConnections())
+                .setMaxConnPerRoute(properties.getMaxConnectionsPerRoute())
+                // the most recently used connection is the least likely to have been closed by the server
+                .setConnPoolPolicy(PoolReusePolicy.LIFO)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(properties.getConnectTimeout()))
+                        .setTimeToLive(TimeValue.of(properties.getTimeToLive()))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+    }
+
+    // picked up by Spring Cloud OpenFeign's load-balanced Apache HttpClient 5 client
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "feign-transport", name = "http2", havingValue = "false", matchIfMissing = true)
+    public CloseableHttpClient feignHttpClient(PoolingHttpClientConnectionManager feignConnectionManager,
+                                               FeignTransportProperties properties) {
+        TimeValue keepAlive = TimeValue.of(properties.getKeepAlive());
+        return HttpClients.custom()
+                .setConnectionManager(feignConnectionManager)
+                .setKeepAliveStrategy(new DefaultConnectionKeepAliveStrategy() {
+                    @Override
+                    public TimeValue getKeepAliveDuration(HttpResponse response, HttpContext context) {
+                        return response.containsHeader("Keep-Alive")
+                                ? super.getKeepAliveDuration(response, context) : keepAlive;
+                    }
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(properties.getIdleEviction()))
+                .disableCookieManagement()
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "feign-transport", name = "http2", havingValue = "false", matchIfMissing = true)
+    public MeterBinder feignConnectionPoolMetrics(PoolingHttpClientConnectionManager feignConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(feignConnectionManager, "feign");
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "feign-transport", name = "http2", havingValue = "true")
+    public Client feignClient(FeignTransportProperties properties, LoadBalancerClient loadBalancerClient,
+                              LoadBalancerClientFactory loadBalancerClientFactory,
+                              List<LoadBalancerFeignRequestTransformer> transformers) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(properties.getConnectTimeout())
+                .build();
+        return new FeignBlockingLoadBalancerClient(new Http2Client(httpClient), loadBalancerClient,
+                loadBalancerClientFactory, transformers);
+    }
+}
@@ -0,0 +1,22 @@
+package be.pxl.services.client;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "feign-transport")
+public class FeignTransportProperties {
+    // JDK HttpClient with HTTP/2 (cleartext upgrade) instead of the pooled Apache HttpClient 5
+    private boolean http2 = false;
+    private int maxConnections = 200;
+    // per target instance (host and port)
+    private int maxConnectionsPerRoute = 50;
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    // used when a response carries no Keep-Alive header (Tomcat never sends one); keep it below the servers'
+    // keep-alive timeout, 20s by default
+    private Duration keepAlive = Duration.ofSeconds(15);
+    private Duration idleEviction = Duration.ofSeconds(10);
+    private Duration timeToLive = Duration.ofMinutes(5);
+}
@@ -1,24 +1,50 @@
 package be.pxl.services.controller;
 
+import be.pxl.services.domain.StatScope;
+import be.pxl.services.domain.dto.BulkChangeResponse;
+import be.pxl.services.domain.dto.EmployeeMoveRequest;
 import be.pxl.services.domain.dto.EmployeeRequest;
 import be.pxl.services.domain.dto.EmployeeResponse;
+import be.pxl.services.domain.dto.EmployeeSearchCriteria;
+import be.pxl.services.domain.dto.EmployeeStatsResponse;
+import be.pxl.services.domain.dto.StatsRebuildResponse;
 import be.pxl.services.services.IEmployeeService;
+import be.pxl.services.services.IEmployeeStatsService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/employee")
 @RequiredArgsConstructor
 public class EmployeeController {
+    private static final int MAX_SEARCH_RESULTS = 100;
+    // any other property would make the query fail with a 500
+    private static final Set<String> SORTABLE = Set.of("name", "position", "age", "id");
+
     private final IEmployeeService employeeService;
+    private final IEmployeeStatsService employeeStatsService;
 
+    // conditional GETs answer 304 from a version lookup before any employee is loaded or serialized
     @GetMapping
-    @ResponseStatus(HttpStatus.OK)
-    public List<EmployeeResponse> getEmployees() {
-        return employeeService.getAllEmployees();
+    public ResponseEntity<List<EmployeeResponse>> getEmployees(WebRequest request) {
+        String etag = employeeService.getEmployeesETag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(employeeService.getAllEmployees());
     }
 
     @PostMapping
@@ -28,20 +54,132 @@ public class EmployeeController {
     }
 
     @GetMapping("/{id}")
+    public ResponseEntity<EmployeeResponse> getEmployeeById(@PathVariable Long id, WebRequest request) {
+        String etag = employeeService.getEmployeeETag(id);
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+        EmployeeResponse employee = employeeService.getEmployeeById(id);
+        return ResponseEntity.ok().eTag(etag).body(employee);
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<EmployeeResponse> updateEmployee(@PathVariable Long id,
+                                                           @RequestBody EmployeeRequest employeeRequest,
+                                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        EmployeeResponse employee = employeeService.updateEmployee(id, employeeRequest, expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(versionETag(employee.getVersion())).body(employee);
+    }
+
+    @PutMapping("/{id}/department")
+    public ResponseEntity<EmployeeResponse> moveEmployee(@PathVariable Long id,
+                                                         @RequestBody EmployeeMoveRequest moveRequest,
+                                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        EmployeeResponse employee = employeeService.moveEmployee(id, moveRequest, expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(versionETag(employee.getVersion())).body(employee);
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void deleteEmployee(@PathVariable Long id,
+                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        employeeService.deleteEmployee(id, expectedVersion(ifMatch));
+    }
+
+    @PostMapping("/department/{departmentId}/move")
     @ResponseStatus(HttpStatus.OK)
-    public EmployeeResponse getEmployeeById(@PathVariable Long id) {
-        return employeeService.getEmployeeById(id);
+    public BulkChangeResponse moveEmployeesOfDepartment(@PathVariable Long departmentId,
+                                                        @RequestBody EmployeeMoveRequest moveRequest) {
+        return employeeService.moveEmployeesOfDepartment(departmentId, moveRequest);
     }
 
-    @GetMapping("/department/{departmentId}")
+    @DeleteMapping("/department/{departmentId}")
     @ResponseStatus(HttpStatus.OK)
-    public List<EmployeeResponse> getEmployeesByDepartment(@PathVariable Long departmentId) {
-        return employeeService.getEmployeesByDepartment(departmentId);
+    public BulkChangeResponse deleteEmployeesOfDepartment(@PathVariable Long departmentId) {
+        return employeeService.deleteEmployeesOfDepartment(departmentId);
+    }
+
+    @GetMapping("/department/{departmentId}")
+    public ResponseEntity<List<EmployeeResponse>> getEmployeesByDepartment(@PathVariable Long departmentId,
+                                                                           WebRequest request) {
+        String etag = employeeService.getEmployeesByDepartmentETag(departmentId);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(employeeService.getEmployeesByDepartment(departmentId));
     }
 
     @GetMapping("/organization/{organizationId}")
+    public ResponseEntity<List<EmployeeResponse>> getEmployeesByOrganization(@PathVariable Long organizationId,
+                                                                             WebRequest request) {
+        String etag = employeeService.getEmployeesByOrganizationETag(organizationId);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(employeeService.getEmployeesByOrganization(organizationId));
+    }
+
+    @GetMapping(value = "/search", params = "!q")
+    @ResponseStatus(HttpStatus.OK)
+    public Page<EmployeeResponse> searchEmployees(EmployeeSearchCriteria criteria,
+                                                  @PageableDefault(size = 20, sort = "name") Pageable pageable) {
+        for (Sort.Order order : pageable.getSort()) {
+            if (!SORTABLE.contains(order.getProperty())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot sort employees by " + order.getProperty());
+            }
+        }
+        return employeeService.searchEmployees(criteria, pageable);
+    }
+
+    @GetMapping(value = "/search", params = "q")
+    @ResponseStatus(HttpStatus.OK)
+    public List<EmployeeResponse> searchEmployeesByText(@RequestParam String q,
+                                                        @RequestParam(defaultValue = "20") int limit,
+                                                        @RequestParam(defaultValue = "false") boolean fuzzy) {
+        return employeeService.searchEmployeesByText(q, Math.min(Math.max(limit, 1), MAX_SEARCH_RESULTS), fuzzy);
+    }
+
+    @GetMapping("/stats/organization/{organizationId}")
     @ResponseStatus(HttpStatus.OK)
-    public List<EmployeeResponse> getEmployeesByOrganization(@PathVariable Long organizationId) {
-        return employeeService.getEmployeesByOrganization(organizationId);
+    public EmployeeStatsResponse getOrganizationStats(@PathVariable Long organizationId) {
+        return employeeStatsService.getStats(StatScope.ORGANIZATION, organizationId);
+    }
+
+    @GetMapping("/stats/department/{departmentId}")
+    @ResponseStatus(HttpStatus.OK)
+    public EmployeeStatsResponse getDepartmentStats(@PathVariable Long departmentId) {
+        return employeeStatsService.getStats(StatScope.DEPARTMENT, departmentId);
+    }
+
+    @PostMapping("/stats/rebuild")
+    @ResponseStatus(HttpStatus.OK)
+    public StatsRebuildResponse rebuildStats() {
+        return employeeStatsService.rebuild();
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public void handleConflict() {
+    }
+
+    // writes answer with the version their own flush produced, so no lookup runs after the commit
+    private static String versionETag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    // If-Match carries the ETag handed out by the GET, i.e. the quoted entity version
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String version = ifMatch.trim();
+        if (version.startsWith("W/")) {
+            version = version.substring(2);
+        }
+        try {
+            return Long.valueOf(version.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new OptimisticLockingFailureException("If-Match does not match any version");
+        }
     }
 }
@@ -5,8 +5,10 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
+// the indexes are created by EmployeePartitioning: Hibernate does not see indexes of a partitioned table
 @Table(name = "employee")
 @Data
 @Builder
@@ -22,4 +24,7 @@ public class Employee {
     private String name;
     private int age;
     private String position;
+    @Version
+    @ColumnDefault("0")
+    private Long version;
 }
@@ -0,0 +1,27 @@
+package be.pxl.services.domain;
+
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One incrementally maintained aggregate row: the headcount and summed age of the employees in an
+ * organization or department, either in total or for a single position or age band.
+ */
+@Entity
+@Table(name = "employee_stats")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeStat {
+    @EmbeddedId
+    private EmployeeStatId id;
+
+    private long headcount;
+    private long ageSum;
+}
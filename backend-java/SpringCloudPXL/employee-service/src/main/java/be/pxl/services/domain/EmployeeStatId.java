@@ -0,0 +1,26 @@
+package be.pxl.services.domain;
+
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Embeddable
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeStatId implements Serializable {
+    @Enumerated(EnumType.STRING)
+    private StatScope scope;
+    private Long scopeId;
+    @Enumerated(EnumType.STRING)
+    private StatDimension dimension;
+    // empty for TOTAL rows, otherwise the position or age band counted by this row
+    private String dimensionValue;
+}
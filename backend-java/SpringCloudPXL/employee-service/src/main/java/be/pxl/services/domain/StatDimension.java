@@ -0,0 +1,7 @@
+package be.pxl.services.domain;
+
+public enum StatDimension {
+    TOTAL,
+    POSITION,
+    AGE_BAND
+}
@@ -0,0 +1,6 @@
+package be.pxl.services.domain;
+
+public enum StatScope {
+    ORGANIZATION,
+    DEPARTMENT
+}
@@ -0,0 +1,16 @@
+package be.pxl.services.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeMoveRequest {
+    // either one left empty keeps the current organization or department
+    private Long organizationId;
+    private Long departmentId;
+}
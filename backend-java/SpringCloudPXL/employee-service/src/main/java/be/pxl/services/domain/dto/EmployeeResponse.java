@@ -1,5 +1,6 @@
 package be.pxl.services.domain.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -10,9 +11,13 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class EmployeeResponse {
+    private Long id;
     private Long organizationId;
     private Long departmentId;
     private String name;
     private int age;
     private String position;
+    // the entity version the response was read or written at, handed out as the ETag rather than in the body
+    @JsonIgnore
+    private Long version;
 }
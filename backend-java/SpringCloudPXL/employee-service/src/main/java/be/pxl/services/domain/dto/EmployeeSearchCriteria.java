@@ -0,0 +1,19 @@
+package be.pxl.services.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeSearchCriteria {
+    private Long organizationId;
+    private Long departmentId;
+    private Integer minAge;
+    private Integer maxAge;
+    private String position;
+    private String namePrefix;
+}
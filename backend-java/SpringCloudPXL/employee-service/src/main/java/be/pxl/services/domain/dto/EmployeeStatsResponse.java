@@ -0,0 +1,22 @@
+package be.pxl.services.domain.dto;
+
+import be.pxl.services.domain.StatScope;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeStatsResponse {
+    private StatScope scope;
+    private Long scopeId;
+    private long headcount;
+    private double averageAge;
+    private Map<String, Long> positions;
+    private Map<String, Long> ageDistribution;
+}
@@ -0,0 +1,18 @@
+package be.pxl.services.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatsRebuildResponse {
+    private int rows;
+    // aggregate rows whose incrementally maintained values differed from the recomputed ones
+    private List<String> mismatches;
+}
@@ -0,0 +1,203 @@
+package be.pxl.services.events;
+
+import be.pxl.services.domain.dto.EmployeeResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process log of committed employee changes. Every event gets a monotonic sequence number; the
+ * newest {@code change-events.capacity} events are retained so subscribers can resume from an offset.
+ * Appending only enqueues the event into a bounded per-subscriber queue, in sequence order; a small shared
+ * pool of sender threads drains those queues, so neither writers nor other subscribers wait on a slow
+ * connection. A subscriber whose queue overflows is disconnected and is expected to reconnect with its
+ * Last-Event-ID, which replays what it missed from the retained events.
+ */
+@Slf4j
+@Component
+public class ChangeEventLog {
+    private final ChangeEventProperties properties;
+    private final Deque<ChangeEvent> events = new ArrayDeque<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders;
+    private final AtomicLong disconnectedSlowConsumers = new AtomicLong();
+    private final String epoch = UUID.randomUUID().toString();
+    private long lastSequence;
+
+    public ChangeEventLog(ChangeEventProperties properties) {
+        this.properties = properties;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(properties.getSenderThreads(), r -> {
+            Thread thread = new Thread(r, "change-event-sse-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public ChangeEvent append(ChangeType type, Long entityId, Long organizationId, EmployeeResponse payload) {
+        synchronized (events) {
+            ChangeEvent event = ChangeEvent.builder()
+                    .sequence(++lastSequence)
+                    .type(type)
+                    .entityId(entityId)
+                    .organizationId(organizationId)
+                    .timestamp(Instant.now())
+                    .payload(payload)
+                    .build();
+            events.addLast(event);
+            while (events.size() > properties.getCapacity()) {
+                events.removeFirst();
+            }
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(event);
+            }
+            return event;
+        }
+    }
+
+    public ChangeEventPage readAfter(long after, int limit) {
+        synchronized (events) {
+            List<ChangeEvent> page = new ArrayList<>();
+            for (ChangeEvent event : events) {
+                if (page.size() >= limit) {
+                    break;
+                }
+                if (event.getSequence() > after) {
+                    page.add(event);
+                }
+            }
+            return ChangeEventPage.builder()
+                    .epoch(epoch)
+                    .firstSequence(events.isEmpty() ? lastSequence + 1 : events.getFirst().getSequence())
+                    .lastSequence(lastSequence)
+                    .events(page)
+                    .build();
+        }
+    }
+
+    public long getLastSequence() {
+        synchronized (events) {
+            return lastSequence;
+        }
+    }
+
+    public SseEmitter subscribe(long after) {
+        SseEmitter emitter = new SseEmitter(properties.getStreamTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscribers.remove(subscriber));
+        // registered under the append lock, so every event is either replayed or queued live, exactly once
+        synchronized (events) {
+            subscriber.replay(readAfter(after, Integer.MAX_VALUE).getEvents());
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public long getDisconnectedSlowConsumers() {
+        return disconnectedSlowConsumers.get();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Queue<ChangeEvent> replay = new ConcurrentLinkedQueue<>();
+        private final Queue<ChangeEvent> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void replay(List<ChangeEvent> missed) {
+            replay.addAll(missed);
+            schedule();
+        }
+
+        void offer(ChangeEvent event) {
+            if (closed) {
+                return;
+            }
+            if (size.incrementAndGet() > properties.getSubscriberQueueCapacity()) {
+                disconnectedSlowConsumers.incrementAndGet();
+                log.debug("Disconnecting change event subscriber that fell {} events behind", size.get() - 1);
+                close();
+                return;
+            }
+            pending.add(event);
+            schedule();
+        }
+
+        private void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                ChangeEvent event;
+                while (!closed && (event = replay.poll()) != null) {
+                    send(event);
+                }
+                while (!closed && (event = pending.poll()) != null) {
+                    size.decrementAndGet();
+                    send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping change event subscriber: {}", e.getMessage());
+                close();
+            } finally {
+                draining.set(false);
+            }
+            if (!closed && (!replay.isEmpty() || !pending.isEmpty())) {
+                schedule();
+            }
+        }
+
+        private void send(ChangeEvent event) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(event.getSequence()))
+                    .name("change")
+                    .data(event));
+        }
+
+        private void close() {
+            closed = true;
+            subscribers.remove(this);
+            replay.clear();
+            pending.clear();
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package be.pxl.services.events;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "change-events")
+public class ChangeEventProperties {
+    private int capacity = 10_000;
+    private Duration streamTimeout = Duration.ofMinutes(30);
+    // live events a stream subscriber may fall behind by before it is disconnected to resume from its offset
+    private int subscriberQueueCapacity = 256;
+    private int senderThreads = 2;
+}
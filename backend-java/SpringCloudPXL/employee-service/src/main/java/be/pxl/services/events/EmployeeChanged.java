@@ -0,0 +1,14 @@
+package be.pxl.services.events;
+
+import be.pxl.services.domain.dto.EmployeeResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class EmployeeChanged {
+    private final ChangeType type;
+    private final Long employeeId;
+    private final Long organizationId;
+    private final EmployeeResponse employee;
+}
@@ -0,0 +1,192 @@
+package be.pxl.services.partitioning;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps the employee table LIST-partitioned on organization_id. Every organization whose headcount reaches
+ * employee-partitioning.promote-threshold gets a partition of its own, so its rows, indexes and vacuum work no
+ * longer weigh on the many small organizations that share employee_default. Queries filtering on organization_id
+ * are pruned to a single partition. Runs after Hibernate has created or updated the table, converts a plain
+ * employee table the first time it starts, and creates the employee indexes for either layout.
+ * <p>
+ * A partitioned table can only enforce uniqueness on keys that include organization_id, and organization_id may
+ * be null, so the table loses its primary key. Every partition instead gets a unique index on id of its own:
+ * ids are unique within an organization, and so within the default partition, which is all a (organization_id,
+ * id) key would guarantee. Only the same id in two different organizations is not caught by the database; ids
+ * come from the employee sequence and moving an employee moves its row, so that takes an id inserted by hand.
+ * Enforcing it would mean an extra id table kept in step by triggers on every write, which is why partitioning
+ * is off by default.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmployeePartitioning {
+    static final String DEFAULT_PARTITION = "employee_default";
+    private static final String COLUMNS = "id, organization_id, department_id, name, age, position, version";
+    private static final String[] INDEXES = {
+            "CREATE INDEX IF NOT EXISTS idx_employee_organization_department ON employee (organization_id, department_id)",
+            // keyset pages of an organization (the gRPC stream) without sorting the organization each time
+            "CREATE INDEX IF NOT EXISTS idx_employee_organization_id ON employee (organization_id, id)",
+            "CREATE INDEX IF NOT EXISTS idx_employee_department ON employee (department_id)",
+            "CREATE INDEX IF NOT EXISTS idx_employee_name ON employee (name)",
+            // the name index sorts by the database collation, which LIKE 'prefix%' can only use under "C"
+            "CREATE INDEX IF NOT EXISTS idx_employee_name_prefix ON employee (name varchar_pattern_ops)",
+            "CREATE INDEX IF NOT EXISTS idx_employee_position_age ON employee (position, age)",
+            "CREATE INDEX IF NOT EXISTS idx_employee_age ON employee (age)"
+    };
+
+    private final EmployeePartitioningProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    // initialised after the entity manager factory so the employee table already exists
+    private final EntityManagerFactory entityManagerFactory;
+
+    // instances starting together serialize on an advisory lock, so only the first one converts the table
+    @PostConstruct
+    public void createSchema() {
+        transactionTemplate.executeWithoutResult(status -> {
+            lockSchema();
+            if (properties.isEnabled() && !isPartitioned()) {
+                partition();
+            }
+            if (isPartitioned()) {
+                getPartitions().forEach(this::createIdKey);
+                // replaced by the unique indexes above
+                jdbcTemplate.execute("DROP INDEX IF EXISTS idx_employee_id");
+            }
+            for (String statement : INDEXES) {
+                jdbcTemplate.execute(statement);
+            }
+        });
+    }
+
+    private void partition() {
+        long start = System.currentTimeMillis();
+        jdbcTemplate.execute("LOCK TABLE employee IN ACCESS EXCLUSIVE MODE");
+        jdbcTemplate.execute("ALTER TABLE employee RENAME TO employee_unpartitioned");
+        jdbcTemplate.execute("CREATE TABLE employee (LIKE employee_unpartitioned INCLUDING DEFAULTS "
+                + "INCLUDING GENERATED) PARTITION BY LIST (organization_id)");
+        jdbcTemplate.execute("CREATE TABLE " + DEFAULT_PARTITION + " PARTITION OF employee DEFAULT");
+        jdbcTemplate.queryForList("SELECT organization_id FROM employee_unpartitioned "
+                        + "WHERE organization_id IS NOT NULL GROUP BY organization_id HAVING count(*) >= ?",
+                Long.class, properties.getPromoteThreshold()).forEach(organizationId -> jdbcTemplate.execute(
+                "CREATE TABLE " + partitionOf(organizationId) + " PARTITION OF employee FOR VALUES IN ("
+                        + organizationId + ")"));
+        jdbcTemplate.execute("INSERT INTO employee (" + COLUMNS + ") SELECT " + COLUMNS
+                + " FROM employee_unpartitioned");
+        jdbcTemplate.execute("DROP TABLE employee_unpartitioned");
+        log.info("Partitioned the employee table by organization in {} ms", System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Gives every organization that reached the threshold since the last run its own partition. The employee
+     * statistics (see EmployeeStatsService) supply the headcounts, so no partition is scanned to find them.
+     */
+    @Scheduled(fixedDelayString = "${employee-partitioning.maintenance-interval:600000}")
+    public void promoteLargeOrganizations() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Set<String> partitions = new HashSet<>(getPartitions());
+        for (Long organizationId : jdbcTemplate.queryForList("SELECT scope_id FROM employee_stats "
+                + "WHERE scope = 'ORGANIZATION' AND dimension = 'TOTAL' AND dimension_value = '' AND headcount >= ? "
+                + "ORDER BY scope_id", Long.class, properties.getPromoteThreshold())) {
+            if (partitions.contains(partitionOf(organizationId))) {
+                continue;
+            }
+            try {
+                promote(organizationId);
+            } catch (DataAccessException e) {
+                log.warn("Could not move organization {} to its own partition, retrying on the next run: {}",
+                        organizationId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Copies the organization's rows into a new, still detached table while employee_default stays readable and
+     * writable, then locks employee_default only to catch up with rows changed during the copy, delete the
+     * originals and attach the table. The attach still has to scan employee_default to prove no row of the
+     * organization is left in it, so writes to every organization in the default partition wait for that scan
+     * plus the catch-up, which is proportional to the organization's size. employee-partitioning.lock-timeout
+     * bounds both the wait for the lock and every statement run while holding it; a promotion that exceeds it
+     * is rolled back as a whole and tried again on the next run.
+     */
+    private void promote(Long organizationId) {
+        String partition = partitionOf(organizationId);
+        long start = System.currentTimeMillis();
+        Integer moved = transactionTemplate.execute(status -> {
+            lockSchema();
+            if (getPartitions().contains(partition)) {
+                return null;
+            }
+            // the copied indexes are attached to the partitioned ones instead of being built under the lock
+            jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE employee INCLUDING DEFAULTS INCLUDING GENERATED "
+                    + "INCLUDING INDEXES)");
+            createIdKey(partition);
+            // lets the attach skip scanning the new partition
+            jdbcTemplate.execute("ALTER TABLE " + partition + " ADD CONSTRAINT " + partition + "_organization "
+                    + "CHECK (organization_id IS NOT NULL AND organization_id = " + organizationId + ")");
+            jdbcTemplate.update("INSERT INTO " + partition + " (" + COLUMNS + ") SELECT " + COLUMNS + " FROM "
+                    + DEFAULT_PARTITION + " WHERE organization_id = ?", organizationId);
+
+            long timeout = properties.getLockTimeout().toMillis();
+            jdbcTemplate.execute("SET LOCAL lock_timeout = " + timeout);
+            jdbcTemplate.execute("SET LOCAL statement_timeout = " + timeout);
+            jdbcTemplate.execute("LOCK TABLE " + DEFAULT_PARTITION + " IN ACCESS EXCLUSIVE MODE");
+            jdbcTemplate.update("DELETE FROM " + partition + " p WHERE NOT EXISTS (SELECT 1 FROM " + DEFAULT_PARTITION
+                    + " d WHERE d.id = p.id AND d.organization_id = ? AND (" + columnsOf("d")
+                    + ") IS NOT DISTINCT FROM (" + columnsOf("p") + "))", organizationId);
+            jdbcTemplate.update("INSERT INTO " + partition + " (" + COLUMNS + ") SELECT " + columnsOf("d") + " FROM "
+                    + DEFAULT_PARTITION + " d WHERE d.organization_id = ? AND NOT EXISTS (SELECT 1 FROM " + partition
+                    + " p WHERE p.id = d.id)", organizationId);
+            int rows = jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE organization_id = ?",
+                    organizationId);
+            jdbcTemplate.execute("ALTER TABLE employee ATTACH PARTITION " + partition + " FOR VALUES IN ("
+                    + organizationId + ")");
+            return rows;
+        });
+        if (moved != null) {
+            log.info("Moved {} employee(s) of organization {} to partition {} in {} ms", moved, organizationId,
+                    partition, System.currentTimeMillis() - start);
+        }
+    }
+
+    private void createIdKey(String partition) {
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS " + partition + "_id_key ON " + partition + " (id)");
+    }
+
+    private void lockSchema() {
+        jdbcTemplate.execute("SELECT pg_advisory_xact_lock(hashtext('employee-partitioning'))");
+    }
+
+    private static String columnsOf(String alias) {
+        return alias + "." + COLUMNS.replace(", ", ", " + alias + ".");
+    }
+
+    public boolean isPartitioned() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT relkind = 'p' FROM pg_class WHERE oid = to_regclass('employee')", Boolean.class));
+    }
+
+    public List<String> getPartitions() {
+        return jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                + "WHERE i.inhparent = to_regclass('employee') ORDER BY c.relname", String.class);
+    }
+
+    static String partitionOf(Long organizationId) {
+        return "employee_org_" + organizationId;
+    }
+}
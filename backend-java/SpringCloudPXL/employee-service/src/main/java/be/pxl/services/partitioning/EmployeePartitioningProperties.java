@@ -0,0 +1,16 @@
+package be.pxl.services.partitioning;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "employee-partitioning")
+public class EmployeePartitioningProperties {
+    private boolean enabled = false;
+    // headcount from which an organization is moved out of the shared default partition into its own
+    private long promoteThreshold = 100_000;
+    // longest a promotion may wait for, or keep, the lock on the default partition per statement
+    private Duration lockTimeout = Duration.ofSeconds(5);
+}
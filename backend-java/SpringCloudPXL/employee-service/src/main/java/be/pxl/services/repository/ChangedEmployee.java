@@ -0,0 +1,15 @@
+package be.pxl.services.repository;
+
+/**
+ * An employee row as changed by a set-based statement, with the organization it belonged to before.
+ * Organization and department are empty for deleted rows.
+ */
+public interface ChangedEmployee {
+    Long getId();
+    Long getPreviousOrganizationId();
+    Long getOrganizationId();
+    Long getDepartmentId();
+    String getName();
+    Integer getAge();
+    String getPosition();
+}
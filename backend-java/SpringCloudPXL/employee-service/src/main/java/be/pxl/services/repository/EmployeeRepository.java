@@ -1,11 +1,109 @@
 package be.pxl.services.repository;
 
 import be.pxl.services.domain.Employee;
+import be.pxl.services.domain.dto.CollectionVersion;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface EmployeeRepository extends JpaRepository<Employee, Long> {
+public interface EmployeeRepository extends JpaRepository<Employee, Long>, JpaSpecificationExecutor<Employee> {
+    // employee is partitioned by organization_id (see EmployeePartitioning): queries that filter on it read one
+    // partition, the others probe the matching index of every partition
     List<Employee> findByDepartmentId(Long departmentId);
     List<Employee> findByOrganizationId(Long organizationId);
+    // keyset pages for the gRPC streams: the next page starts after the last id of the previous one
+    List<Employee> findByOrganizationIdAndIdGreaterThanOrderById(Long organizationId, Long afterId, Limit limit);
+    List<Employee> findByDepartmentIdInAndIdGreaterThanOrderById(Collection<Long> departmentIds, Long afterId,
+                                                                  Limit limit);
+
+    @Query("SELECT e.version FROM Employee e WHERE e.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT new be.pxl.services.domain.dto.CollectionVersion(count(e), coalesce(sum(cast("
+            + "function('hashtext', concat(cast(e.id as String), ':', cast(e.version as String))) as Long)), 0)) "
+            + "FROM Employee e")
+    CollectionVersion findCollectionVersion();
+
+    @Query("SELECT new be.pxl.services.domain.dto.CollectionVersion(count(e), coalesce(sum(cast("
+            + "function('hashtext', concat(cast(e.id as String), ':', cast(e.version as String))) as Long)), 0)) "
+            + "FROM Employee e WHERE e.departmentId = :departmentId")
+    CollectionVersion findCollectionVersionByDepartmentId(@Param("departmentId") Long departmentId);
+
+    @Query("SELECT new be.pxl.services.domain.dto.CollectionVersion(count(e), coalesce(sum(cast("
+            + "function('hashtext', concat(cast(e.id as String), ':', cast(e.version as String))) as Long)), 0)) "
+            + "FROM Employee e WHERE e.organizationId = :organizationId")
+    CollectionVersion findCollectionVersionByOrganizationId(@Param("organizationId") Long organizationId);
+
+    /**
+     * Data-modifying CTE that moves the statistics (see EmployeeStatRepository) of every row of the preceding
+     * {@code changed} CTE from its previous organization/department/position/age to its current one.
+     */
+    String APPLY_STATS_OF_CHANGED = "stats AS (INSERT INTO employee_stats "
+            + "(scope, scope_id, dimension, dimension_value, headcount, age_sum) "
+            + "SELECT k.scope, k.scope_id, k.dimension, k.dimension_value, sum(k.delta), sum(k.delta * k.age) "
+            + "FROM changed c CROSS JOIN LATERAL (VALUES "
+            + "('ORGANIZATION', c.previous_organization_id, 'TOTAL', '', -1, c.previous_age), "
+            + "('ORGANIZATION', c.previous_organization_id, 'POSITION', coalesce(c.previous_position, ''), -1, c.previous_age), "
+            + "('ORGANIZATION', c.previous_organization_id, 'AGE_BAND', (c.previous_age / 10 * 10) || '-' || (c.previous_age / 10 * 10 + 9), -1, c.previous_age), "
+            + "('DEPARTMENT', c.previous_department_id, 'TOTAL', '', -1, c.previous_age), "
+            + "('DEPARTMENT', c.previous_department_id, 'POSITION', coalesce(c.previous_position, ''), -1, c.previous_age), "
+            + "('DEPARTMENT', c.previous_department_id, 'AGE_BAND', (c.previous_age / 10 * 10) || '-' || (c.previous_age / 10 * 10 + 9), -1, c.previous_age), "
+            + "('ORGANIZATION', c.organization_id, 'TOTAL', '', 1, c.age), "
+            + "('ORGANIZATION', c.organization_id, 'POSITION', coalesce(c.position, ''), 1, c.age), "
+            + "('ORGANIZATION', c.organization_id, 'AGE_BAND', (c.age / 10 * 10) || '-' || (c.age / 10 * 10 + 9), 1, c.age), "
+            + "('DEPARTMENT', c.department_id, 'TOTAL', '', 1, c.age), "
+            + "('DEPARTMENT', c.department_id, 'POSITION', coalesce(c.position, ''), 1, c.age), "
+            + "('DEPARTMENT', c.department_id, 'AGE_BAND', (c.age / 10 * 10) || '-' || (c.age / 10 * 10 + 9), 1, c.age)"
+            + ") AS k(scope, scope_id, dimension, dimension_value, delta, age) WHERE k.scope_id IS NOT NULL "
+            + "GROUP BY k.scope, k.scope_id, k.dimension, k.dimension_value "
+            + "ON CONFLICT (scope, scope_id, dimension, dimension_value) DO UPDATE SET "
+            + "headcount = employee_stats.headcount + EXCLUDED.headcount, "
+            + "age_sum = employee_stats.age_sum + EXCLUDED.age_sum) ";
+    String SELECT_CHANGED = "SELECT c.id, c.previous_organization_id AS \"previousOrganizationId\", "
+            + "c.organization_id AS \"organizationId\", c.department_id AS \"departmentId\", "
+            + "c.name, c.age, c.position FROM changed c";
+
+    // one statement: moves the rows, bumps their versions and adjusts the statistics
+    @Query(value = "WITH moving AS (SELECT id, organization_id FROM employee "
+            + "WHERE department_id = :fromDepartmentId FOR UPDATE), "
+            + "changed AS (UPDATE employee e SET "
+            + "department_id = coalesce(CAST(:toDepartmentId AS bigint), e.department_id), "
+            + "organization_id = coalesce(CAST(:toOrganizationId AS bigint), e.organization_id), "
+            + "version = e.version + 1 FROM moving m WHERE e.id = m.id "
+            + "RETURNING e.id, e.name, e.age, e.position, e.organization_id, e.department_id, "
+            + "m.organization_id AS previous_organization_id, "
+            + "CAST(:fromDepartmentId AS bigint) AS previous_department_id, "
+            + "e.position AS previous_position, e.age AS previous_age), "
+            + APPLY_STATS_OF_CHANGED + SELECT_CHANGED, nativeQuery = true)
+    List<ChangedEmployee> moveAllOfDepartment(@Param("fromDepartmentId") Long fromDepartmentId,
+                                              @Param("toOrganizationId") Long toOrganizationId,
+                                              @Param("toDepartmentId") Long toDepartmentId);
+
+    @Query(value = "WITH changed AS (DELETE FROM employee e WHERE e.department_id = :departmentId "
+            + "RETURNING e.id, e.name, e.age, e.position, "
+            + "e.organization_id AS previous_organization_id, e.department_id AS previous_department_id, "
+            + "e.position AS previous_position, e.age AS previous_age, "
+            + "CAST(NULL AS bigint) AS organization_id, CAST(NULL AS bigint) AS department_id), "
+            + APPLY_STATS_OF_CHANGED + SELECT_CHANGED, nativeQuery = true)
+    List<ChangedEmployee> deleteAllOfDepartment(@Param("departmentId") Long departmentId);
+
+    // see EmployeeSearchIndex for the search_vector column and the indexes backing these queries; ranking is
+    // limited to the first :candidates matches so very common prefixes stay bounded
+    @Query(value = "SELECT c.* FROM (SELECT e.* FROM employee e "
+            + "WHERE e.search_vector @@ to_tsquery('simple', :tsquery) LIMIT :candidates) c "
+            + "ORDER BY ts_rank(c.search_vector, to_tsquery('simple', :tsquery)) DESC, c.id "
+            + "LIMIT :limit", nativeQuery = true)
+    List<Employee> searchFullText(@Param("tsquery") String tsquery, @Param("candidates") int candidates,
+                                  @Param("limit") int limit);
+
+    @Query(value = "SELECT e.* FROM employee e WHERE e.name % :text OR e.position % :text "
+            + "ORDER BY greatest(similarity(e.name, :text), similarity(e.position, :text)) DESC, e.id "
+            + "LIMIT :limit", nativeQuery = true)
+    List<Employee> searchFuzzy(@Param("text") String text, @Param("limit") int limit);
 }
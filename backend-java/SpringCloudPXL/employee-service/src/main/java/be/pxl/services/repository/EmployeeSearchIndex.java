@@ -0,0 +1,72 @@
+package be.pxl.services.repository;
+
+import be.pxl.services.partitioning.EmployeePartitioning;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maintains the PostgreSQL full-text index over employee names and positions: a stored generated
+ * {@code tsvector} column (so every insert or update keeps it current without application code) with a GIN
+ * index for ranked word/prefix matches, plus trigram indexes for fuzzy matching. Runs after Hibernate has
+ * created or updated the table.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmployeeSearchIndex {
+    private static final String[] DDL = {
+            "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+            "ALTER TABLE employee ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS ("
+                    + "setweight(to_tsvector('simple', coalesce(name, '')), 'A') || "
+                    + "setweight(to_tsvector('simple', coalesce(position, '')), 'B')) STORED",
+            "CREATE INDEX IF NOT EXISTS idx_employee_search_vector ON employee USING gin (search_vector)",
+            "CREATE INDEX IF NOT EXISTS idx_employee_name_trgm ON employee USING gin (name gin_trgm_ops)",
+            "CREATE INDEX IF NOT EXISTS idx_employee_position_trgm ON employee USING gin (position gin_trgm_ops)"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    // initialised after the entity manager factory so the employee table already exists
+    private final EntityManagerFactory entityManagerFactory;
+    // and after a plain table has been converted, so the indexes are created on the partitioned one
+    private final EmployeePartitioning employeePartitioning;
+    private volatile boolean available;
+
+    @PostConstruct
+    public void createIndexes() {
+        try {
+            for (String statement : DDL) {
+                jdbcTemplate.execute(statement);
+            }
+            available = true;
+        } catch (DataAccessException e) {
+            log.warn("Full-text employee search unavailable, falling back to name prefix matching: {}", e.getMessage());
+        }
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * Turns free text into a tsquery where every word is matched as a prefix, e.g. {@code "jan dev"} becomes
+     * {@code "jan:* & dev:*"}. Returns an empty string when no searchable words remain.
+     */
+    public static String toPrefixQuery(String text) {
+        StringBuilder query = new StringBuilder();
+        for (String word : text.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            if (!query.isEmpty()) {
+                query.append(" & ");
+            }
+            query.append(word).append(":*");
+        }
+        return query.toString();
+    }
+}
@@ -0,0 +1,61 @@
+package be.pxl.services.repository;
+
+import be.pxl.services.domain.Employee;
+import be.pxl.services.domain.dto.EmployeeSearchCriteria;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class EmployeeSpecifications {
+    private EmployeeSpecifications() {
+    }
+
+    public static Specification<Employee> matching(EmployeeSearchCriteria criteria) {
+        List<Specification<Employee>> specifications = new ArrayList<>();
+        if (criteria.getOrganizationId() != null) {
+            specifications.add(hasOrganization(criteria.getOrganizationId()));
+        }
+        if (criteria.getDepartmentId() != null) {
+            specifications.add(hasDepartment(criteria.getDepartmentId()));
+        }
+        if (criteria.getMinAge() != null) {
+            specifications.add(ageAtLeast(criteria.getMinAge()));
+        }
+        if (criteria.getMaxAge() != null) {
+            specifications.add(ageAtMost(criteria.getMaxAge()));
+        }
+        if (criteria.getPosition() != null && !criteria.getPosition().isBlank()) {
+            specifications.add(hasPosition(criteria.getPosition()));
+        }
+        if (criteria.getNamePrefix() != null && !criteria.getNamePrefix().isBlank()) {
+            specifications.add(nameStartsWith(criteria.getNamePrefix()));
+        }
+        return Specification.allOf(specifications);
+    }
+
+    public static Specification<Employee> hasOrganization(Long organizationId) {
+        return (root, query, cb) -> cb.equal(root.get("organizationId"), organizationId);
+    }
+
+    public static Specification<Employee> hasDepartment(Long departmentId) {
+        return (root, query, cb) -> cb.equal(root.get("departmentId"), departmentId);
+    }
+
+    public static Specification<Employee> ageAtLeast(int age) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("age"), age);
+    }
+
+    public static Specification<Employee> ageAtMost(int age) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("age"), age);
+    }
+
+    public static Specification<Employee> hasPosition(String position) {
+        return (root, query, cb) -> cb.equal(root.get("position"), position);
+    }
+
+    public static Specification<Employee> nameStartsWith(String prefix) {
+        String pattern = prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return (root, query, cb) -> cb.like(root.get("name"), pattern, '\\');
+    }
+}
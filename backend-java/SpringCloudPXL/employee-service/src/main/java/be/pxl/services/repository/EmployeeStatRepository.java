@@ -0,0 +1,60 @@
+package be.pxl.services.repository;
+
+import be.pxl.services.domain.EmployeeStat;
+import be.pxl.services.domain.EmployeeStatId;
+import be.pxl.services.domain.StatScope;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface EmployeeStatRepository extends JpaRepository<EmployeeStat, EmployeeStatId> {
+    List<EmployeeStat> findByIdScopeAndIdScopeId(StatScope scope, Long scopeId);
+
+    // adds delta employees of the given age to all six aggregate rows of one employee in a single statement
+    @Modifying
+    @Query(value = "INSERT INTO employee_stats (scope, scope_id, dimension, dimension_value, headcount, age_sum) "
+            + "SELECT v.scope, v.scope_id, v.dimension, v.dimension_value, :delta, :delta * :age FROM (VALUES "
+            + "('ORGANIZATION', CAST(:organizationId AS bigint), 'TOTAL', ''), "
+            + "('ORGANIZATION', CAST(:organizationId AS bigint), 'POSITION', CAST(:position AS varchar)), "
+            + "('ORGANIZATION', CAST(:organizationId AS bigint), 'AGE_BAND', CAST(:ageBand AS varchar)), "
+            + "('DEPARTMENT', CAST(:departmentId AS bigint), 'TOTAL', ''), "
+            + "('DEPARTMENT', CAST(:departmentId AS bigint), 'POSITION', CAST(:position AS varchar)), "
+            + "('DEPARTMENT', CAST(:departmentId AS bigint), 'AGE_BAND', CAST(:ageBand AS varchar))"
+            + ") AS v(scope, scope_id, dimension, dimension_value) WHERE v.scope_id IS NOT NULL "
+            + "ON CONFLICT (scope, scope_id, dimension, dimension_value) DO UPDATE SET "
+            + "headcount = employee_stats.headcount + EXCLUDED.headcount, "
+            + "age_sum = employee_stats.age_sum + EXCLUDED.age_sum", nativeQuery = true)
+    void applyDelta(@Param("organizationId") Long organizationId, @Param("departmentId") Long departmentId,
+                    @Param("position") String position, @Param("ageBand") String ageBand,
+                    @Param("age") int age, @Param("delta") int delta);
+
+    // blocks concurrent applyDelta calls until the rebuild commits, so no increment is lost or counted twice
+    @Modifying
+    @Query(value = "LOCK TABLE employee_stats IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRebuild();
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = "DELETE FROM employee_stats", nativeQuery = true)
+    void deleteAllStats();
+
+    // age bands must match EmployeeStatsService.ageBand
+    @Modifying(clearAutomatically = true)
+    @Query(value = "INSERT INTO employee_stats (scope, scope_id, dimension, dimension_value, headcount, age_sum) "
+            + "SELECT 'ORGANIZATION', organization_id, 'TOTAL', '', count(*), sum(age) FROM employee "
+            + "WHERE organization_id IS NOT NULL GROUP BY organization_id "
+            + "UNION ALL SELECT 'ORGANIZATION', organization_id, 'POSITION', coalesce(position, ''), count(*), sum(age) "
+            + "FROM employee WHERE organization_id IS NOT NULL GROUP BY organization_id, coalesce(position, '') "
+            + "UNION ALL SELECT 'ORGANIZATION', organization_id, 'AGE_BAND', (age / 10 * 10) || '-' || (age / 10 * 10 + 9), "
+            + "count(*), sum(age) FROM employee WHERE organization_id IS NOT NULL GROUP BY organization_id, age / 10 "
+            + "UNION ALL SELECT 'DEPARTMENT', department_id, 'TOTAL', '', count(*), sum(age) FROM employee "
+            + "WHERE department_id IS NOT NULL GROUP BY department_id "
+            + "UNION ALL SELECT 'DEPARTMENT', department_id, 'POSITION', coalesce(position, ''), count(*), sum(age) "
+            + "FROM employee WHERE department_id IS NOT NULL GROUP BY department_id, coalesce(position, '') "
+            + "UNION ALL SELECT 'DEPARTMENT', department_id, 'AGE_BAND', (age / 10 * 10) || '-' || (age / 10 * 10 + 9), "
+            + "count(*), sum(age) FROM employee WHERE department_id IS NOT NULL GROUP BY department_id, age / 10",
+            nativeQuery = true)
+    int rebuildFromEmployees();
+}
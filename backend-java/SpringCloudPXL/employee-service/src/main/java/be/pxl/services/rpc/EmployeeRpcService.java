@@ -0,0 +1,114 @@
+package be.pxl.services.rpc;
+
+import be.pxl.services.domain.dto.EmployeeResponse;
+import be.pxl.services.rpc.proto.DepartmentEmployeesQuery;
+import be.pxl.services.rpc.proto.EmployeeBatch;
+import be.pxl.services.rpc.proto.EmployeeMessage;
+import be.pxl.services.rpc.proto.EmployeeRpcGrpc;
+import be.pxl.services.rpc.proto.OrganizationEmployeesQuery;
+import be.pxl.services.services.IEmployeeService;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class EmployeeRpcService extends EmployeeRpcGrpc.EmployeeRpcImplBase {
+    private final IEmployeeService employeeService;
+    private final RpcServerProperties properties;
+
+    @Override
+    public void streamByOrganization(OrganizationEmployeesQuery request, StreamObserver<EmployeeBatch> responseObserver) {
+        stream((afterId, limit) -> employeeService.getEmployeesByOrganization(request.getOrganizationId(), afterId, limit),
+                responseObserver);
+    }
+
+    @Override
+    public void streamByDepartments(DepartmentEmployeesQuery request, StreamObserver<EmployeeBatch> responseObserver) {
+        stream((afterId, limit) -> employeeService.getEmployeesByDepartments(request.getDepartmentIdsList(), afterId,
+                limit), responseObserver);
+    }
+
+    /**
+     * Reads and sends one batch at a time, only while the transport can take it: a slow client makes the stream
+     * wait for its next onReady callback instead of buffering the whole result in the server. Every batch is
+     * its own keyset query, so no transaction or connection stays open while the stream waits.
+     */
+    private void stream(BatchSource source, StreamObserver<EmployeeBatch> responseObserver) {
+        ServerCallStreamObserver<EmployeeBatch> observer = (ServerCallStreamObserver<EmployeeBatch>) responseObserver;
+        int batchSize = Math.max(1, properties.getBatchSize());
+        BatchStream stream = new BatchStream(source, observer, batchSize);
+        observer.setOnCancelHandler(stream::cancel);
+        observer.setOnReadyHandler(stream::drain);
+    }
+
+    @FunctionalInterface
+    private interface BatchSource {
+        List<EmployeeResponse> next(Long afterId, int limit);
+    }
+
+    // the handlers of one call run one at a time on the call's executor
+    private static class BatchStream {
+        private final BatchSource source;
+        private final ServerCallStreamObserver<EmployeeBatch> observer;
+        private final int batchSize;
+        private long afterId = Long.MIN_VALUE;
+        private boolean done;
+
+        BatchStream(BatchSource source, ServerCallStreamObserver<EmployeeBatch> observer, int batchSize) {
+            this.source = source;
+            this.observer = observer;
+            this.batchSize = batchSize;
+        }
+
+        void cancel() {
+            done = true;
+        }
+
+        void drain() {
+            while (!done && observer.isReady()) {
+                List<EmployeeResponse> employees;
+                try {
+                    employees = source.next(afterId, batchSize);
+                } catch (RuntimeException e) {
+                    done = true;
+                    observer.onError(Status.INTERNAL.withDescription(e.getMessage()).withCause(e).asRuntimeException());
+                    return;
+                }
+                if (!employees.isEmpty()) {
+                    EmployeeBatch.Builder batch = EmployeeBatch.newBuilder();
+                    employees.forEach(employee -> batch.addEmployees(toMessage(employee)));
+                    observer.onNext(batch.build());
+                    afterId = employees.get(employees.size() - 1).getId();
+                }
+                if (employees.size() < batchSize) {
+                    done = true;
+                    observer.onCompleted();
+                }
+            }
+        }
+    }
+
+    private static EmployeeMessage toMessage(EmployeeResponse employee) {
+        EmployeeMessage.Builder message = EmployeeMessage.newBuilder()
+                .setId(employee.getId())
+                .setAge(employee.getAge());
+        if (employee.getOrganizationId() != null) {
+            message.setOrganizationId(employee.getOrganizationId());
+        }
+        if (employee.getDepartmentId() != null) {
+            message.setDepartmentId(employee.getDepartmentId());
+        }
+        if (employee.getName() != null) {
+            message.setName(employee.getName());
+        }
+        if (employee.getPosition() != null) {
+            message.setPosition(employee.getPosition());
+        }
+        return message.build();
+    }
+}
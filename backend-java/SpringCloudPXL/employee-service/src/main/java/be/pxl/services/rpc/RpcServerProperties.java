@@ -0,0 +1,18 @@
+package be.pxl.services.rpc;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "rpc.server")
+public class RpcServerProperties {
+    private boolean enabled = true;
+    // also published as the grpc-port metadata of the Eureka instance
+    private int port = 9081;
+    // entries per streamed message
+    private int batchSize = 500;
+    // in-flight calls get this long to finish on shutdown
+    private Duration shutdownGracePeriod = Duration.ofSeconds(5);
+}
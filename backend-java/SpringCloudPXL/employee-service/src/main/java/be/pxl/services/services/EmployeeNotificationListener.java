@@ -0,0 +1,33 @@
+package be.pxl.services.services;
+
+import be.pxl.services.client.NotificationClient;
+import be.pxl.services.domain.NotificationRequest;
+import be.pxl.services.events.ChangeType;
+import be.pxl.services.events.EmployeeChanged;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Sends the "Employee Created" notification once the insert has committed, so the remote call never holds the
+ * database transaction open and a notification failure never rolls the employee back.
+ */
+@Component
+@RequiredArgsConstructor
+public class EmployeeNotificationListener {
+    private final NotificationClient notificationClient;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChanged change) {
+        if (change.getType() != ChangeType.CREATED) {
+            return;
+        }
+        NotificationRequest notificationRequest = NotificationRequest
+                .builder()
+                .message("Employee Created")
+                .sender("Tom")
+                .build();
+
+        notificationClient.sendNotification(notificationRequest);
+    }
+}
@@ -1,40 +1,65 @@
 package be.pxl.services.services;
 
-import be.pxl.services.client.NotificationClient;
 import be.pxl.services.domain.Employee;
-import be.pxl.services.domain.NotificationRequest;
+import be.pxl.services.domain.dto.BulkChangeResponse;
+import be.pxl.services.domain.dto.EmployeeMoveRequest;
 import be.pxl.services.domain.dto.EmployeeRequest;
 import be.pxl.services.domain.dto.EmployeeResponse;
+import be.pxl.services.domain.dto.EmployeeSearchCriteria;
+import be.pxl.services.events.ChangeType;
+import be.pxl.services.events.EmployeeChanged;
+import be.pxl.services.repository.ChangedEmployee;
 import be.pxl.services.repository.EmployeeRepository;
+import be.pxl.services.repository.EmployeeSearchIndex;
+import be.pxl.services.repository.EmployeeSpecifications;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class EmployeeService implements IEmployeeService {
+    private static final int SEARCH_CANDIDATES = 1000;
+
     private final EmployeeRepository employeeRepository;
-    private final NotificationClient notificationClient;
+    private final IEmployeeStatsService employeeStatsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EmployeeSearchIndex searchIndex;
 
     private EmployeeResponse mapToEmployeeResponse(Employee employee) {
         return EmployeeResponse.builder()
+                .id(employee.getId())
                 .organizationId(employee.getOrganizationId())
                 .departmentId(employee.getDepartmentId())
                 .age(employee.getAge())
                 .name(employee.getName())
                 .position(employee.getPosition())
+                .version(employee.getVersion())
                 .build();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<EmployeeResponse> getAllEmployees() {
         return employeeRepository.findAll().stream().map(this::mapToEmployeeResponse)
                 .collect(Collectors.toList());
     }
 
     @Override
+    @Transactional
     public void addEmployee(EmployeeRequest employeeRequest) {
         Employee employee = Employee.builder()
                 .organizationId(employeeRequest.getOrganizationId())
@@ -44,24 +69,150 @@ public class EmployeeService implements IEmployeeService {
                 .position(employeeRequest.getPosition())
                 .build();
         employeeRepository.save(employee);
-
-        NotificationRequest notificationRequest = NotificationRequest
-                .builder()
-                .message("Employee Created")
-                .sender("Tom")
-                .build();
-
-        notificationClient.sendNotification(notificationRequest);
+        employeeStatsService.recordAdded(employee);
+        // the change log and the notification (EmployeeNotificationListener) follow after commit
+        eventPublisher.publishEvent(new EmployeeChanged(ChangeType.CREATED, employee.getId(),
+                employee.getOrganizationId(), mapToEmployeeResponse(employee)));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public EmployeeResponse getEmployeeById(Long id) {
         return employeeRepository.findById(id)
                 .map(this::mapToEmployeeResponse)
                 .orElseThrow(() -> new RuntimeException("Employee not found"));
     }
 
+    private Employee getEmployeeForUpdate(Long id, Long expectedVersion) {
+        Employee employee = employeeRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Employee not found"));
+        if (expectedVersion != null && !expectedVersion.equals(employee.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Employee.class, id);
+        }
+        return employee;
+    }
+
+    private static Employee copyOf(Employee employee) {
+        return Employee.builder()
+                .id(employee.getId())
+                .organizationId(employee.getOrganizationId())
+                .departmentId(employee.getDepartmentId())
+                .name(employee.getName())
+                .age(employee.getAge())
+                .position(employee.getPosition())
+                .build();
+    }
+
+    // a move to another organization is published as a removal from the old one, so its read model drops it
+    private void publishUpdated(Long previousOrganizationId, EmployeeResponse employee) {
+        if (previousOrganizationId != null && !previousOrganizationId.equals(employee.getOrganizationId())) {
+            eventPublisher.publishEvent(new EmployeeChanged(ChangeType.DELETED, employee.getId(),
+                    previousOrganizationId, employee));
+        }
+        eventPublisher.publishEvent(new EmployeeChanged(ChangeType.UPDATED, employee.getId(),
+                employee.getOrganizationId(), employee));
+    }
+
+    private Employee saveChanges(Employee previous, Employee employee) {
+        Employee saved = employeeRepository.saveAndFlush(employee);
+        employeeStatsService.recordRemoved(previous);
+        employeeStatsService.recordAdded(saved);
+        publishUpdated(previous.getOrganizationId(), mapToEmployeeResponse(saved));
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public EmployeeResponse updateEmployee(Long id, EmployeeRequest employeeRequest, Long expectedVersion) {
+        Employee employee = getEmployeeForUpdate(id, expectedVersion);
+        Employee previous = copyOf(employee);
+        employee.setOrganizationId(employeeRequest.getOrganizationId());
+        employee.setDepartmentId(employeeRequest.getDepartmentId());
+        employee.setName(employeeRequest.getName());
+        employee.setAge(employeeRequest.getAge());
+        employee.setPosition(employeeRequest.getPosition());
+        return mapToEmployeeResponse(saveChanges(previous, employee));
+    }
+
+    @Override
+    @Transactional
+    public EmployeeResponse moveEmployee(Long id, EmployeeMoveRequest moveRequest, Long expectedVersion) {
+        Employee employee = getEmployeeForUpdate(id, expectedVersion);
+        Employee previous = copyOf(employee);
+        employee.setOrganizationId(Objects.requireNonNullElse(moveRequest.getOrganizationId(), employee.getOrganizationId()));
+        employee.setDepartmentId(moveRequest.getDepartmentId());
+        return mapToEmployeeResponse(saveChanges(previous, employee));
+    }
+
+    @Override
+    @Transactional
+    public void deleteEmployee(Long id, Long expectedVersion) {
+        Employee employee = getEmployeeForUpdate(id, expectedVersion);
+        employeeRepository.delete(employee);
+        employeeRepository.flush();
+        employeeStatsService.recordRemoved(employee);
+        eventPublisher.publishEvent(new EmployeeChanged(ChangeType.DELETED, employee.getId(),
+                employee.getOrganizationId(), mapToEmployeeResponse(employee)));
+    }
+
+    @Override
+    @Transactional
+    public BulkChangeResponse moveEmployeesOfDepartment(Long departmentId, EmployeeMoveRequest moveRequest) {
+        List<ChangedEmployee> moved = employeeRepository.moveAllOfDepartment(departmentId,
+                moveRequest.getOrganizationId(), moveRequest.getDepartmentId());
+        moved.forEach(employee -> publishUpdated(employee.getPreviousOrganizationId(), mapToEmployeeResponse(employee)));
+        return BulkChangeResponse.builder().affected(moved.size()).build();
+    }
+
+    @Override
+    @Transactional
+    public BulkChangeResponse deleteEmployeesOfDepartment(Long departmentId) {
+        List<ChangedEmployee> deleted = employeeRepository.deleteAllOfDepartment(departmentId);
+        deleted.forEach(employee -> eventPublisher.publishEvent(new EmployeeChanged(ChangeType.DELETED,
+                employee.getId(), employee.getPreviousOrganizationId(), mapToEmployeeResponse(employee))));
+        return BulkChangeResponse.builder().affected(deleted.size()).build();
+    }
+
+    private EmployeeResponse mapToEmployeeResponse(ChangedEmployee employee) {
+        return EmployeeResponse.builder()
+                .id(employee.getId())
+                .organizationId(Objects.requireNonNullElse(employee.getOrganizationId(),
+                        employee.getPreviousOrganizationId()))
+                .departmentId(employee.getDepartmentId())
+                .age(employee.getAge())
+                .name(employee.getName())
+                .position(employee.getPosition())
+                .build();
+    }
+
     @Override
+    @Transactional(readOnly = true)
+    public String getEmployeeETag(Long id) {
+        return employeeRepository.findVersionById(id)
+                .map(version -> "\"" + version + "\"")
+                .orElse(null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String getEmployeesETag() {
+        return employeeRepository.findCollectionVersion().toETag();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String getEmployeesByDepartmentETag(Long departmentId) {
+        return employeeRepository.findCollectionVersionByDepartmentId(departmentId).toETag();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String getEmployeesByOrganizationETag(Long organizationId) {
+        return employeeRepository.findCollectionVersionByOrganizationId(organizationId).toETag();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<EmployeeResponse> getEmployeesByDepartment(Long departmentId) {
         return employeeRepository.findByDepartmentId(departmentId)
                 .stream()
@@ -70,10 +221,67 @@ public class EmployeeService implements IEmployeeService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<EmployeeResponse> getEmployeesByOrganization(Long organizationId) {
         return employeeRepository.findByOrganizationId(organizationId)
                 .stream()
                 .map(this::mapToEmployeeResponse)
                 .collect(Collectors.toList());
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EmployeeResponse> getEmployeesByOrganization(Long organizationId, Long afterId, int limit) {
+        return employeeRepository.findByOrganizationIdAndIdGreaterThanOrderById(organizationId, afterId,
+                        Limit.of(limit))
+                .stream()
+                .map(this::mapToEmployeeResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EmployeeResponse> getEmployeesByDepartments(List<Long> departmentIds, Long afterId, int limit) {
+        return employeeRepository.findByDepartmentIdInAndIdGreaterThanOrderById(departmentIds, afterId,
+                        Limit.of(limit))
+                .stream()
+                .map(this::mapToEmployeeResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<EmployeeResponse> searchEmployees(EmployeeSearchCriteria criteria, Pageable pageable) {
+        return employeeRepository.findAll(EmployeeSpecifications.matching(criteria), pageable)
+                .map(this::mapToEmployeeResponse);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EmployeeResponse> searchEmployeesByText(String text, int limit, boolean fuzzy) {
+        String tsquery = EmployeeSearchIndex.toPrefixQuery(text);
+        if (tsquery.isEmpty()) {
+            return List.of();
+        }
+        if (!searchIndex.isAvailable()) {
+            return employeeRepository.findAll(EmployeeSpecifications.nameStartsWith(text.trim()),
+                            PageRequest.of(0, limit, Sort.by("name"))).getContent().stream()
+                    .map(this::mapToEmployeeResponse)
+                    .collect(Collectors.toList());
+        }
+        List<Employee> employees = new ArrayList<>(
+                employeeRepository.searchFullText(tsquery, SEARCH_CANDIDATES, limit));
+        // only on request: the trigram similarity search finds misspelled names, but even through the trigram
+        // indexes it takes 0.7-2.3 s on a million employees against milliseconds for the full-text search
+        if (fuzzy && employees.size() < limit) {
+            Set<Long> found = employees.stream().map(Employee::getId).collect(Collectors.toSet());
+            employeeRepository.searchFuzzy(text.trim(), limit).stream()
+                    .filter(employee -> found.add(employee.getId()))
+                    .limit(limit - employees.size())
+                    .forEach(employees::add);
+        }
+        return employees.stream()
+                .map(this::mapToEmployeeResponse)
+                .collect(Collectors.toList());
+    }
 }
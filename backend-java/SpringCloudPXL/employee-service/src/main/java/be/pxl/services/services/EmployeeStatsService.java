@@ -0,0 +1,105 @@
+package be.pxl.services.services;
+
+import be.pxl.services.domain.Employee;
+import be.pxl.services.domain.EmployeeStat;
+import be.pxl.services.domain.EmployeeStatId;
+import be.pxl.services.domain.StatScope;
+import be.pxl.services.domain.dto.EmployeeStatsResponse;
+import be.pxl.services.domain.dto.StatsRebuildResponse;
+import be.pxl.services.repository.EmployeeStatRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class EmployeeStatsService implements IEmployeeStatsService {
+    private final EmployeeStatRepository employeeStatRepository;
+
+    static String ageBand(int age) {
+        int lower = age / 10 * 10;
+        return lower + "-" + (lower + 9);
+    }
+
+    @Override
+    @Transactional
+    public void recordAdded(Employee employee) {
+        employeeStatRepository.applyDelta(employee.getOrganizationId(), employee.getDepartmentId(),
+                Objects.requireNonNullElse(employee.getPosition(), ""), ageBand(employee.getAge()),
+                employee.getAge(), 1);
+    }
+
+    @Override
+    @Transactional
+    public void recordRemoved(Employee employee) {
+        employeeStatRepository.applyDelta(employee.getOrganizationId(), employee.getDepartmentId(),
+                Objects.requireNonNullElse(employee.getPosition(), ""), ageBand(employee.getAge()),
+                employee.getAge(), -1);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EmployeeStatsResponse getStats(StatScope scope, Long scopeId) {
+        EmployeeStatsResponse response = EmployeeStatsResponse.builder()
+                .scope(scope)
+                .scopeId(scopeId)
+                .positions(new TreeMap<>())
+                .ageDistribution(new TreeMap<>())
+                .build();
+        for (EmployeeStat stat : employeeStatRepository.findByIdScopeAndIdScopeId(scope, scopeId)) {
+            if (stat.getHeadcount() == 0) {
+                continue;
+            }
+            String value = stat.getId().getDimensionValue();
+            switch (stat.getId().getDimension()) {
+                case TOTAL -> {
+                    response.setHeadcount(stat.getHeadcount());
+                    response.setAverageAge((double) stat.getAgeSum() / stat.getHeadcount());
+                }
+                case POSITION -> response.getPositions().put(value, stat.getHeadcount());
+                case AGE_BAND -> response.getAgeDistribution().put(value, stat.getHeadcount());
+            }
+        }
+        return response;
+    }
+
+    @Override
+    @Transactional
+    public StatsRebuildResponse rebuild() {
+        employeeStatRepository.lockForRebuild();
+        Map<EmployeeStatId, EmployeeStat> before = employeeStatRepository.findAll().stream()
+                .collect(Collectors.toMap(EmployeeStat::getId, Function.identity()));
+        employeeStatRepository.deleteAllStats();
+        int rows = employeeStatRepository.rebuildFromEmployees();
+
+        List<String> mismatches = new ArrayList<>();
+        Map<EmployeeStatId, EmployeeStat> remaining = new HashMap<>(before);
+        for (EmployeeStat stat : employeeStatRepository.findAll()) {
+            EmployeeStat previous = remaining.remove(stat.getId());
+            if (previous == null || previous.getHeadcount() != stat.getHeadcount()
+                    || previous.getAgeSum() != stat.getAgeSum()) {
+                mismatches.add(describe(stat.getId()));
+            }
+        }
+        remaining.values().stream()
+                .filter(stat -> stat.getHeadcount() != 0)
+                .forEach(stat -> mismatches.add(describe(stat.getId())));
+        return StatsRebuildResponse.builder()
+                .rows(rows)
+                .mismatches(mismatches)
+                .build();
+    }
+
+    private static String describe(EmployeeStatId id) {
+        return id.getScope() + ":" + id.getScopeId() + ":" + id.getDimension() + ":" + id.getDimensionValue();
+    }
+}
@@ -1,7 +1,12 @@
 package be.pxl.services.services;
 
+import be.pxl.services.domain.dto.BulkChangeResponse;
+import be.pxl.services.domain.dto.EmployeeMoveRequest;
 import be.pxl.services.domain.dto.EmployeeRequest;
 import be.pxl.services.domain.dto.EmployeeResponse;
+import be.pxl.services.domain.dto.EmployeeSearchCriteria;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 import java.util.List;
 
@@ -9,6 +14,21 @@ public interface IEmployeeService {
     List<EmployeeResponse> getAllEmployees();
     void addEmployee(EmployeeRequest employeeRequest);
     EmployeeResponse getEmployeeById(Long id);
+    // expectedVersion is optional; a mismatch fails with an optimistic locking failure
+    EmployeeResponse updateEmployee(Long id, EmployeeRequest employeeRequest, Long expectedVersion);
+    EmployeeResponse moveEmployee(Long id, EmployeeMoveRequest moveRequest, Long expectedVersion);
+    void deleteEmployee(Long id, Long expectedVersion);
+    BulkChangeResponse moveEmployeesOfDepartment(Long departmentId, EmployeeMoveRequest moveRequest);
+    BulkChangeResponse deleteEmployeesOfDepartment(Long departmentId);
+    String getEmployeeETag(Long id);
+    String getEmployeesETag();
+    String getEmployeesByDepartmentETag(Long departmentId);
+    String getEmployeesByOrganizationETag(Long organizationId);
     List<EmployeeResponse> getEmployeesByDepartment(Long departmentId);
     List<EmployeeResponse> getEmployeesByOrganization(Long organizationId);
+    // ordered by id, at most limit employees with an id above afterId
+    List<EmployeeResponse> getEmployeesByOrganization(Long organizationId, Long afterId, int limit);
+    List<EmployeeResponse> getEmployeesByDepartments(List<Long> departmentIds, Long afterId, int limit);
+    Page<EmployeeResponse> searchEmployees(EmployeeSearchCriteria criteria, Pageable pageable);
+    List<EmployeeResponse> searchEmployeesByText(String text, int limit, boolean fuzzy);
 }
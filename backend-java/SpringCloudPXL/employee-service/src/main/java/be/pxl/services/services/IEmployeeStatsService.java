@@ -0,0 +1,13 @@
+package be.pxl.services.services;
+
+import be.pxl.services.domain.Employee;
+import be.pxl.services.domain.StatScope;
+import be.pxl.services.domain.dto.EmployeeStatsResponse;
+import be.pxl.services.domain.dto.StatsRebuildResponse;
+
+public interface IEmployeeStatsService {
+    void recordAdded(Employee employee);
+    void recordRemoved(Employee employee);
+    EmployeeStatsResponse getStats(StatScope scope, Long scopeId);
+    StatsRebuildResponse rebuild();
+}
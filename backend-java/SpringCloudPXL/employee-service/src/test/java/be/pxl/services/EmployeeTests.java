@@ -1,15 +1,39 @@
 package be.pxl.services;
 
+import be.pxl.services.deadline.DeadlineExceededException;
+import be.pxl.services.deadline.RequestDeadline;
 import be.pxl.services.domain.Employee;
+import be.pxl.services.domain.dto.EmployeeMoveRequest;
 import be.pxl.services.domain.dto.EmployeeRequest;
+import be.pxl.services.events.ChangeEventLog;
+import be.pxl.services.overload.AdaptiveConcurrencyLimit;
+import be.pxl.services.partitioning.EmployeePartitioning;
 import be.pxl.services.repository.EmployeeRepository;
+import be.pxl.services.repository.EmployeeStatRepository;
+import be.pxl.services.rpc.RpcServer;
+import be.pxl.services.rpc.proto.DepartmentEmployeesQuery;
+import be.pxl.services.rpc.proto.EmployeeMessage;
+import be.pxl.services.rpc.proto.EmployeeRpcGrpc;
+import be.pxl.services.rpc.proto.OrganizationEmployeesQuery;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.Client;
+import feign.hc5.ApacheHttp5Client;
+import io.grpc.ManagedChannel;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.EventType;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.openfeign.loadbalancer.FeignBlockingLoadBalancerClient;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
@@ -18,6 +42,10 @@ import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -34,6 +62,22 @@ public class EmployeeTests {
     private ObjectMapper objectMapper;
     @Autowired
     private EmployeeRepository employeeRepository;
+    @Autowired
+    private EmployeeStatRepository employeeStatRepository;
+    @Autowired
+    private ChangeEventLog changeEventLog;
+    @Autowired
+    private EmployeePartitioning employeePartitioning;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private Client feignClient;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private RpcServer rpcServer;
+    @Autowired
+    private AdaptiveConcurrencyLimit concurrencyLimit;
 
     @Container
     private static final PostgreSQLContainer postgreSQLContainer =
@@ -44,11 +88,27 @@ public class EmployeeTests {
         registry.add("spring.datasource.url", postgreSQLContainer::getJdbcUrl);
         registry.add("spring.datasource.username", postgreSQLContainer::getUsername);
         registry.add("spring.datasource.password", postgreSQLContainer::getPassword);
+        registry.add("employee-partitioning.enabled", () -> "true");
+        registry.add("employee-partitioning.promote-threshold", () -> "3");
+        registry.add("rpc.server.port", () -> "0");
+        registry.add("rpc.server.batch-size", () -> "2");
+        registry.add("concurrency-limit.enabled", () -> "true");
+        registry.add("concurrency-limit.initial-limit", () -> "4");
+        registry.add("concurrency-limit.min-limit", () -> "4");
+        registry.add("concurrency-limit.max-limit", () -> "4");
+        registry.add("concurrency-limit.priority-reserve", () -> "0.25");
+        registry.add("deadline.enabled", () -> "true");
+        registry.add("profiling.enabled", () -> "true");
+        registry.add("profiling.token", () -> "test-token");
+        registry.add("profiling.dump-directory", () -> System.getProperty("java.io.tmpdir") + "/employee-tests-jfr");
+        registry.add("profiling.max-dumps", () -> "1");
+        registry.add("management.endpoints.web.exposure.include", () -> "health,jfr");
     }
 
     @BeforeEach
     void setUp() {
         employeeRepository.deleteAll();
+        employeeStatRepository.deleteAll();
     }
 
     @Test
@@ -210,4 +270,429 @@ public class EmployeeTests {
         assertTrue(organizationEmployees.stream().anyMatch(e -> e.getName().equals("Eve")));
         assertTrue(organizationEmployees.stream().anyMatch(e -> e.getName().equals("Frank")));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCreateEmployeePublishesChangeEvent() throws Exception {
+        long after = changeEventLog.getLastSequence();
+        EmployeeRequest employeeRequest = EmployeeRequest.builder()
+                .age(41)
+                .name("Hilde")
+                .position("Architect")
+                .organizationId(3L)
+                .departmentId(4L)
+                .build();
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/employee")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(employeeRequest)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/employee/events?after=" + after))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastSequence").value(after + 1))
+                .andExpect(jsonPath("$.events.length()").value(1))
+                .andExpect(jsonPath("$.events[0].type").value("CREATED"))
+                .andExpect(jsonPath("$.events[0].organizationId").value(3))
+                .andExpect(jsonPath("$.events[0].payload.name").value("Hilde"));
+    }
+
+    @Test
+    public void testSearchEmployees() throws Exception {
+        employeeRepository.save(Employee.builder().age(25).name("Anna").position("Developer")
+                .organizationId(1L).departmentId(1L).build());
+        employeeRepository.save(Employee.builder().age(38).name("Annelies").position("Developer")
+                .organizationId(1L).departmentId(2L).build());
+        employeeRepository.save(Employee.builder().age(45).name("Arne").position("Developer")
+                .organizationId(1L).departmentId(1L).build());
+        employeeRepository.save(Employee.builder().age(33).name("Anton").position("Manager")
+                .organizationId(1L).departmentId(1L).build());
+        employeeRepository.save(Employee.builder().age(30).name("Annick").position("Developer")
+                .organizationId(2L).departmentId(3L).build());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/employee/search")
+                        .param("organizationId", "1")
+                        .param("position", "Developer")
+                        .param("namePrefix", "Ann")
+                        .param("minAge", "20")
+                        .param("maxAge", "40")
+                        .param("sort", "age,desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[0].name").value("Annelies"))
+                .andExpect(jsonPath("$.content[1].name").value("Anna"))
+                .andExpect(jsonPath("$.page.totalElements").value(2));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/employee/search")
+                        .param("organizationId", "1")
+                        .param("size", "2")
+                        .param("page", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.page.totalElements").value(4))
+                .andExpect(jsonPath("$.page.totalPages").value(2));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/employee/search")
+                        .param("sort", "version"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testSearchEmployeesByText() throws Exception {
+        employeeRepository.save(Employee.builder().age(25).name("Anna Peeters").position("Developer")
+                .organizationId(1L).departmentId(1L).build());
+        employeeRepository.save(Employee.builder().age(38).name("Jan Janssens").position("Senior Developer")
+                .organizationId(1L).departmentId(2L).build());
+        employeeRepository.save(Employee.builder().age(45).name("Kornelia Maes").position("Manager")
+                .organizationId(1L).departmentId(1L).build());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/employee/search")
+                        .param("q", "anna dev"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Anna Peeters"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/employee/search")
+                        .param("q", "devel")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Anna Peeters"));
+
+        // a misspelled name is only found when fuzzy matching is asked for
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/employee/search")
+                        .param("q", "Kornelia Maas"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/employee/search")
+                        .param("q", "Kornelia Maas")
+                        .param("fuzzy", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Kornelia Maes"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/employee/search")
+                        .param("q", "Jan"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Jan Janssens"));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/employee/search")
+                        .param("q", "Jan")
+                        .param("fuzzy", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Jan Janssens"));
+    }
+
+    @Test
+    public void testEmployeeStats() throws Exception {
+        for (EmployeeRequest employeeRequest : List.of(
+                EmployeeRequest.builder().age(23).name("Jan").position("Developer")
+                        .organizationId(5L).departmentId(50L).build(),
+                EmployeeRequest.builder().age(27).name("Anna").position("Developer")
+                        .organizationId(5L).departmentId(50L).build(),
+                EmployeeRequest.builder().age(52).name("Piet").position("Manager")
+                        .organizationId(5L).departmentId(51L).build())) {
+            mockMvc.perform(MockMvcRequestBuilders.post("/api/employee")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(employeeRequest)))
+                    .andExpect(status().isCreated());
+        }
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/employee/stats/organization/5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.headcount").value(3))
+                .andExpect(jsonPath("$.averageAge").value(34.0))
+                .andExpect(jsonPath("$.positions.Developer").value(2))
+                .andExpect(jsonPath("$.positions.Manager").value(1))
+                .andExpect(jsonPath("$.ageDistribution['20-29']").value(2))
+                .andExpect(jsonPath("$.ageDistribution['50-59']").value(1));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/employee/stats/department/50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.headcount").value(2))
+                .andExpect(jsonPath("$.averageAge").value(25.0));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/employee/stats/rebuild"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(11))
+                .andExpect(jsonPath("$.mismatches").isEmpty());
+    }
+
+    @Test
+    public void testConditionalGetEmployees() throws Exception {
+        Employee employee = employeeRepository.save(Employee.builder().age(30).name("Eva").position("Developer")
+                .organizationId(3L).departmentId(30L).build());
+
+        String etag = mockMvc.perform(MockMvcRequestBuilders.get("/api/employee/" + employee.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/employee/" + employee.getId())
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        String collectionEtag = mockMvc.perform(MockMvcRequestBuilders.get("/api/employee/organization/3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/employee/organization/3")
+                        .header("If-None-Match", collectionEtag))
+                .andExpect(status().isNotModified());
+
+        employee.setAge(31);
+        employeeRepository.save(employee);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/employee/" + employee.getId())
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.age").value(31));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/employee/organization/3")
+                        .header("If-None-Match", collectionEtag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testUpdateMoveAndDeleteEmployees() throws Exception {
+        for (EmployeeRequest employeeRequest : List.of(
+                EmployeeRequest.builder().age(23).name("Jan").position("Developer")
+                        .organizationId(7L).departmentId(70L).build(),
+                EmployeeRequest.builder().age(35).name("Anna").position("Tester")
+                        .organizationId(7L).departmentId(70L).build(),
+                EmployeeRequest.builder().age(41).name("Piet").position("Manager")
+                        .organizationId(7L).departmentId(71L).build())) {
+            mockMvc.perform(MockMvcRequestBuilders.post("/api/employee")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(employeeRequest)))
+                    .andExpect(status().isCreated());
+        }
+        Employee jan = employeeRepository.findByDepartmentId(70L).stream()
+                .filter(employee -> employee.getName().equals("Jan")).findFirst().orElseThrow();
+
+        String etag = mockMvc.perform(MockMvcRequestBuilders.get("/api/employee/" + jan.getId()))
+                .andReturn().getResponse().getHeader("ETag");
+        EmployeeRequest update = EmployeeRequest.builder().age(24).name("Jan").position("Architect")
+                .organizationId(7L).departmentId(70L).build();
+        String updatedEtag = mockMvc.perform(MockMvcRequestBuilders.put("/api/employee/" + jan.getId())
+                        .header("If-Match", etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(update)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.position").value("Architect"))
+                .andExpect(jsonPath("$.version").doesNotExist())
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotEquals(etag, updatedEtag);
+        assertEquals(updatedEtag, mockMvc.perform(MockMvcRequestBuilders.get("/api/employee/" + jan.getId()))
+                .andReturn().getResponse().getHeader("ETag"));
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/employee/" + jan.getId())
+                        .header("If-Match", etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(update)))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/employee/department/70/move")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(EmployeeMoveRequest.builder()
+                                .organizationId(8L).departmentId(80L).build())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(2));
+        assertEquals(2, employeeRepository.findByDepartmentId(80L).size());
+        assertTrue(employeeRepository.findByDepartmentId(70L).isEmpty());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/employee/stats/organization/7"))
+                .andExpect(jsonPath("$.headcount").value(1));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/employee/stats/organization/8"))
+                .andExpect(jsonPath("$.headcount").value(2))
+                .andExpect(jsonPath("$.positions.Architect").value(1));
+
+        // without a department the employees keep their own
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/employee/department/80/move")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(EmployeeMoveRequest.builder()
+                                .organizationId(9L).build())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(2));
+        assertEquals(2, employeeRepository.findByDepartmentId(80L).size());
+        assertEquals(2, employeeRepository.findByOrganizationId(9L).size());
+
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/employee/department/80"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(2));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/employee/stats/organization/8"))
+                .andExpect(jsonPath("$.headcount").value(0));
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/employee/stats/rebuild"))
+                .andExpect(jsonPath("$.mismatches").isEmpty());
+    }
+
+    @Test
+    public void testLargeOrganizationGetsOwnPartition() throws Exception {
+        assertTrue(employeePartitioning.isPartitioned());
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(MockMvcRequestBuilders.post("/api/employee")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(EmployeeRequest.builder()
+                                    .name("Large " + i).age(30 + i).position("Developer")
+                                    .organizationId(40L).departmentId(400L).build())))
+                    .andExpect(status().isCreated());
+        }
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/employee")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(EmployeeRequest.builder()
+                                .name("Small").age(40).position("Tester")
+                                .organizationId(41L).departmentId(410L).build())))
+                .andExpect(status().isCreated());
+
+        employeePartitioning.promoteLargeOrganizations();
+
+        List<String> partitions = employeePartitioning.getPartitions();
+        assertTrue(partitions.contains("employee_org_40"));
+        assertFalse(partitions.contains("employee_org_41"));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/employee/organization/40"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/employee/organization/41"))
+                .andExpect(jsonPath("$.length()").value(1));
+
+        // moving an employee across organizations moves the row across partitions
+        Employee moved = employeeRepository.findByOrganizationId(41L).get(0);
+        moved.setOrganizationId(40L);
+        employeeRepository.save(moved);
+        assertEquals(4, employeeRepository.findByOrganizationId(40L).size());
+        assertTrue(employeeRepository.findByOrganizationId(41L).isEmpty());
+
+        // every partition keeps its ids unique
+        assertThrows(DuplicateKeyException.class, () -> jdbcTemplate.update("INSERT INTO employee "
+                + "(id, organization_id, name, age, version) VALUES (?, 40, 'Duplicate', 1, 0)", moved.getId()));
+    }
+
+    @Test
+    public void testFeignClientsUsePooledTransport() {
+        FeignBlockingLoadBalancerClient loadBalanced = assertInstanceOf(FeignBlockingLoadBalancerClient.class, feignClient);
+        assertInstanceOf(ApacheHttp5Client.class, loadBalanced.getDelegate());
+        assertEquals(200, meterRegistry.get("httpcomponents.httpclient.pool.total.max")
+                .tag("httpclient", "feign").gauge().value());
+    }
+
+    @Test
+    public void testStreamEmployeesOverRpc() {
+        employeeRepository.saveAll(List.of(
+                Employee.builder().organizationId(50L).departmentId(500L).name("Ada").age(36).position("Engineer").build(),
+                Employee.builder().organizationId(50L).departmentId(501L).name("Grace").age(45).position("Admiral").build(),
+                Employee.builder().organizationId(50L).departmentId(502L).name("Linus").age(28).build()));
+
+        ManagedChannel channel = NettyChannelBuilder.forAddress("localhost", rpcServer.getPort()).usePlaintext().build();
+        try {
+            EmployeeRpcGrpc.EmployeeRpcBlockingStub stub = EmployeeRpcGrpc.newBlockingStub(channel);
+            List<EmployeeMessage> ofOrganization = new ArrayList<>();
+            List<Integer> batchSizes = new ArrayList<>();
+            stub.streamByOrganization(OrganizationEmployeesQuery.newBuilder().setOrganizationId(50L).build())
+                    .forEachRemaining(batch -> {
+                        batchSizes.add(batch.getEmployeesCount());
+                        ofOrganization.addAll(batch.getEmployeesList());
+                    });
+            // read in keyset pages of rpc.server.batch-size, one page per batch
+            assertEquals(List.of(2, 1), batchSizes);
+            assertEquals(ofOrganization.stream().map(EmployeeMessage::getId).sorted().toList(),
+                    ofOrganization.stream().map(EmployeeMessage::getId).toList());
+            EmployeeMessage linus = ofOrganization.stream().filter(e -> e.getName().equals("Linus")).findFirst().orElseThrow();
+            assertEquals(502L, linus.getDepartmentId());
+            assertFalse(linus.hasPosition());
+
+            List<EmployeeMessage> ofDepartments = new ArrayList<>();
+            stub.streamByDepartments(DepartmentEmployeesQuery.newBuilder().addDepartmentIds(500L).addDepartmentIds(501L).build())
+                    .forEachRemaining(batch -> ofDepartments.addAll(batch.getEmployeesList()));
+            assertEquals(List.of("Ada", "Grace"), ofDepartments.stream().map(EmployeeMessage::getName).sorted().toList());
+        } finally {
+            channel.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testRequestsOverTheConcurrencyLimitAreShed() throws Exception {
+        // three requests in flight: reads may use three of the four permits, writes all four
+        for (int i = 0; i < 3; i++) {
+            assertTrue(concurrencyLimit.tryAcquire(true));
+        }
+        try {
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/employee/organization/1"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "1"));
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/employee/organization/1").header("X-Priority", "high"))
+                    .andExpect(status().isOk());
+            mockMvc.perform(MockMvcRequestBuilders.post("/api/employee")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(EmployeeRequest.builder()
+                                    .name("Priority").age(33).position("Developer")
+                                    .organizationId(1L).departmentId(1L).build())))
+                    .andExpect(status().isCreated());
+        } finally {
+            for (int i = 0; i < 3; i++) {
+                concurrencyLimit.release(0, 0);
+            }
+        }
+        assertEquals(0, concurrencyLimit.getInflight());
+        assertEquals(1.0, meterRegistry.counter("concurrency.limit.rejected", "priority", "low").count());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/employee/organization/1"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void testWorkIsAbandonedOnceTheDeadlinePasses() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/employee/organization/1")
+                        .header(RequestDeadline.HEADER, "0"))
+                .andExpect(status().isGatewayTimeout());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/employee/organization/1")
+                        .header(RequestDeadline.HEADER, "5000"))
+                .andExpect(status().isOk());
+        assertEquals(1.0, meterRegistry.counter("deadline.exceeded", "stage", "received").count());
+
+        // a deadline that passes while the request is being handled stops it at its next query
+        RequestDeadline.set(Duration.ZERO);
+        try {
+            assertThrows(DeadlineExceededException.class, () -> employeeRepository.findByOrganizationId(1L));
+        } finally {
+            RequestDeadline.clear();
+        }
+        assertEquals(1.0, meterRegistry.counter("deadline.exceeded", "stage", "query").count());
+        assertTrue(employeeRepository.findByOrganizationId(1L).isEmpty());
+    }
+
+    @Test
+    public void testFlightRecordingIsDumpedOnRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/employee")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(EmployeeRequest.builder()
+                                .name("Recorded").age(41).position("Developer")
+                                .organizationId(1L).departmentId(1L).build())))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/actuator/jfr"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(MockMvcRequestBuilders.post("/actuator/jfr").header(HttpHeaders.AUTHORIZATION, "Bearer wrong"))
+                .andExpect(status().isUnauthorized());
+
+        Path first = dump();
+        Path second = dump();
+        // profiling.max-dumps=1
+        assertFalse(Files.exists(first));
+        assertTrue(Files.size(second) > 0);
+
+        try (RecordingFile recording = new RecordingFile(second)) {
+            assertTrue(recording.readEventTypes().stream().map(EventType::getName)
+                    .anyMatch("be.pxl.services.ServiceMethod"::equals));
+        }
+        // every Feign call is recorded, here the notification for the new employee
+        List<RecordedEvent> feignCalls = RecordingFile.readAllEvents(second).stream()
+                .filter(event -> event.getEventType().getName().equals("be.pxl.services.FeignCall"))
+                .toList();
+        assertTrue(feignCalls.stream().anyMatch(event -> "notification-service".equals(event.getString("client"))));
+    }
+
+    private Path dump() throws Exception {
+        String response = mockMvc.perform(MockMvcRequestBuilders.post("/actuator/jfr")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer test-token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"minutes\":1}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return Path.of(objectMapper.readTree(response).path("file").asText());
+    }
+}
@@ -0,0 +1,21 @@
+package be.pxl.services.composition;
+
+import be.pxl.services.deadline.DeadlineExchangeFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+
+@Configuration
+public class CompositionConfig {
+
+    // resolves lb://-style service ids through discovery, the same way the gateway routes do
+    @Bean
+    @LoadBalanced
+    public WebClient.Builder loadBalancedWebClientBuilder(ObjectProvider<DeadlineExchangeFilter> deadlineExchangeFilter) {
+        WebClient.Builder builder = WebClient.builder();
+        deadlineExchangeFilter.ifAvailable(builder::filter);
+        return builder;
+    }
+}
@@ -0,0 +1,24 @@
+package be.pxl.services.composition;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/composite")
+@RequiredArgsConstructor
+public class CompositionController {
+    private final OrganizationPageComposer organizationPageComposer;
+
+    // a page with the departments or employees missing is still a 200; without the organization it fails with
+    // 404 or 502/504 (see OrganizationPageComposer)
+    @GetMapping("/organization/{id}")
+    public Mono<ResponseEntity<ObjectNode>> getOrganizationPage(@PathVariable Long id) {
+        return organizationPageComposer.compose(id).map(ResponseEntity::ok);
+    }
+}
@@ -0,0 +1,20 @@
+package be.pxl.services.composition;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "gateway.composition")
+public class CompositionProperties {
+    private Duration timeout = Duration.ofSeconds(1);
+    // per-branch overrides keyed by branch name (organization, departments, employees)
+    private Map<String, Duration> timeouts = new HashMap<>();
+
+    public Duration timeoutOf(String branch) {
+        return timeouts.getOrDefault(branch, timeout);
+    }
+}
@@ -0,0 +1,123 @@
+package be.pxl.services.composition;
+
+import be.pxl.services.deadline.RequestDeadline;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Builds the organization page from organization-service, department-service and employee-service. The three
+ * calls run concurrently, each with its own timeout, cut short by the request's deadline. The organization is
+ * required: when organization-service does not know it the page fails with 404, when it cannot be fetched with
+ * 502 (504 on a timeout). A departments or employees branch that fails or times out is left empty and listed
+ * under "missing" instead of failing the whole page. Every employee appears once: under its department, or in
+ * the top-level employees list when it belongs to none of the listed departments.
+ */
+@Slf4j
+@Component
+public class OrganizationPageComposer {
+    public static final String ORGANIZATION = "organization";
+    public static final String DEPARTMENTS = "departments";
+    public static final String EMPLOYEES = "employees";
+
+    private final WebClient webClient;
+    private final CompositionProperties properties;
+    private final ObjectMapper objectMapper;
+
+    public OrganizationPageComposer(WebClient.Builder webClientBuilder, CompositionProperties properties,
+                                    ObjectMapper objectMapper) {
+        this.webClient = webClientBuilder.build();
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    public Mono<ObjectNode> compose(Long organizationId) {
+        return Mono.zip(
+                        organization(organizationId),
+                        branch(DEPARTMENTS, "http://department-service/api/department/organization/{id}", organizationId),
+                        branch(EMPLOYEES, "http://employee-service/api/employee/organization/{id}", organizationId))
+                .map(branches -> merge(branches.getT1(), branches.getT2(), branches.getT3()));
+    }
+
+    private Mono<JsonNode> organization(Long organizationId) {
+        return call(ORGANIZATION, "http://organization-service/api/organization/{id}", organizationId)
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.BAD_GATEWAY,
+                        "organization-service returned no organization")))
+                .onErrorMap(e -> !(e instanceof ResponseStatusException), e -> {
+                    log.warn("Composition branch {} failed: {}", ORGANIZATION, e.toString());
+                    if (e instanceof WebClientResponseException.NotFound) {
+                        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Organization not found");
+                    }
+                    return new ResponseStatusException(e instanceof TimeoutException
+                            ? HttpStatus.GATEWAY_TIMEOUT : HttpStatus.BAD_GATEWAY, "organization-service unavailable", e);
+                });
+    }
+
+    private Mono<Optional<JsonNode>> branch(String name, String uri, Object... uriVariables) {
+        return call(name, uri, uriVariables)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .onErrorResume(e -> {
+                    log.warn("Composition branch {} failed: {}", name, e.toString());
+                    return Mono.just(Optional.empty());
+                });
+    }
+
+    private Mono<JsonNode> call(String name, String uri, Object... uriVariables) {
+        Mono<JsonNode> call = webClient.get()
+                .uri(uri, uriVariables)
+                .retrieve()
+                .bodyToMono(JsonNode.class);
+        // a branch gives up no later than the request's deadline, so the partial page still makes it
+        return Mono.deferContextual(context -> call.timeout(RequestDeadline.shorten(context, properties.timeoutOf(name))));
+    }
+
+    private ObjectNode merge(JsonNode organization, Optional<JsonNode> departments, Optional<JsonNode> employees) {
+        ObjectNode page = objectMapper.createObjectNode();
+        ArrayNode missing = objectMapper.createArrayNode();
+        page.set(ORGANIZATION, organization);
+
+        // grouped once, so attaching them to the departments is a lookup per department
+        Map<Long, ArrayNode> byDepartment = new LinkedHashMap<>();
+        ArrayNode unassigned = objectMapper.createArrayNode();
+        employees.ifPresentOrElse(nodes -> nodes.forEach(employee -> {
+            JsonNode departmentId = employee.path("departmentId");
+            if (departmentId.isIntegralNumber()) {
+                byDepartment.computeIfAbsent(departmentId.asLong(), id -> objectMapper.createArrayNode()).add(employee);
+            } else {
+                unassigned.add(employee);
+            }
+        }), () -> missing.add(EMPLOYEES));
+
+        ArrayNode departmentNodes = objectMapper.createArrayNode();
+        departments.ifPresentOrElse(nodes -> nodes.forEach(department -> {
+            ObjectNode copy = department.deepCopy();
+            if (employees.isPresent()) {
+                ArrayNode ofDepartment = byDepartment.remove(department.path("id").asLong());
+                copy.set(EMPLOYEES, ofDepartment == null ? objectMapper.createArrayNode() : ofDepartment);
+            }
+            departmentNodes.add(copy);
+        }), () -> missing.add(DEPARTMENTS));
+        page.set(DEPARTMENTS, departmentNodes);
+
+        // whatever no listed department claimed, e.g. all of them when the departments branch is missing
+        byDepartment.values().forEach(unassigned::addAll);
+        page.set(EMPLOYEES, unassigned);
+
+        page.set("missing", missing);
+        return page;
+    }
+}
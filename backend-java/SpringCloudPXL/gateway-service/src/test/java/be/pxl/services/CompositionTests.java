@@ -0,0 +1,162 @@
+package be.pxl.services;
+
+import be.pxl.services.composition.CompositionProperties;
+import be.pxl.services.composition.OrganizationPageComposer;
+import be.pxl.services.deadline.DeadlineExchangeFilter;
+import be.pxl.services.deadline.DeadlineProperties;
+import be.pxl.services.deadline.DeadlineWebFilter;
+import be.pxl.services.deadline.RequestDeadline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompositionTests {
+    private static final Duration BACKEND_LATENCY = Duration.ofMillis(300);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private OrganizationPageComposer composer(CompositionProperties properties, Map<String, Mono<ClientResponse>> backends) {
+        WebClient.Builder builder = WebClient.builder().exchangeFunction(request -> backends.entrySet().stream()
+                .filter(backend -> request.url().getHost().equals(backend.getKey()))
+                .findFirst()
+                .map(Map.Entry::getValue)
+                .orElseGet(() -> Mono.just(ClientResponse.create(HttpStatus.NOT_FOUND).build())));
+        return new OrganizationPageComposer(builder, properties, objectMapper);
+    }
+
+    private static Mono<ClientResponse> json(String body) {
+        return Mono.delay(BACKEND_LATENCY).map(tick -> ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(body)
+                .build());
+    }
+
+    private static Map<String, Mono<ClientResponse>> backends(Mono<ClientResponse> employees) {
+        return Map.of(
+                "organization-service", json("{\"id\":1,\"name\":\"PXL\"}"),
+                "department-service", json("[{\"id\":10,\"organizationId\":1,\"name\":\"IT\"}]"),
+                "employee-service", employees);
+    }
+
+    @Test
+    public void testBranchesAreFetchedConcurrently() {
+        OrganizationPageComposer composer = composer(new CompositionProperties(), backends(json(
+                "[{\"id\":100,\"departmentId\":10,\"name\":\"Jan\"},{\"id\":101,\"departmentId\":11,\"name\":\"Anna\"}]")));
+
+        long start = System.nanoTime();
+        ObjectNode page = composer.compose(1L).block();
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertTrue(elapsed.compareTo(BACKEND_LATENCY.multipliedBy(2)) < 0, "took " + elapsed);
+        assertEquals("PXL", page.path("organization").path("name").asText());
+        assertEquals(100, page.path("departments").get(0).path("employees").get(0).path("id").asInt());
+        // only the employee of a department that is not listed remains at the top level
+        assertEquals(1, page.path("employees").size());
+        assertEquals(101, page.path("employees").get(0).path("id").asInt());
+        assertTrue(page.path("missing").isEmpty());
+    }
+
+    @Test
+    public void testEmployeesAreNotNestedWithoutDepartments() {
+        Map<String, Mono<ClientResponse>> backends = new HashMap<>(backends(json(
+                "[{\"id\":100,\"departmentId\":10,\"name\":\"Jan\"},{\"id\":101,\"name\":\"Anna\"}]")));
+        backends.put("department-service", Mono.just(ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR).build()));
+
+        ObjectNode page = composer(new CompositionProperties(), backends).compose(1L).block();
+
+        assertEquals(0, page.path("departments").size());
+        assertEquals(2, page.path("employees").size());
+        assertEquals(OrganizationPageComposer.DEPARTMENTS, page.path("missing").get(0).asText());
+    }
+
+    @Test
+    public void testPageFailsWithoutTheOrganization() {
+        Map<String, Mono<ClientResponse>> backends = new HashMap<>(backends(json("[]")));
+        backends.put("organization-service", Mono.just(ClientResponse.create(HttpStatus.NOT_FOUND).build()));
+        ResponseStatusException notFound = assertThrows(ResponseStatusException.class,
+                () -> composer(new CompositionProperties(), backends).compose(1L).block());
+        assertEquals(HttpStatus.NOT_FOUND, notFound.getStatusCode());
+
+        backends.put("organization-service", Mono.just(ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR).build()));
+        ResponseStatusException unavailable = assertThrows(ResponseStatusException.class,
+                () -> composer(new CompositionProperties(), backends).compose(1L).block());
+        assertEquals(HttpStatus.BAD_GATEWAY, unavailable.getStatusCode());
+    }
+
+    @Test
+    public void testSlowOrFailingBranchGivesPartialPage() {
+        CompositionProperties properties = new CompositionProperties();
+        properties.getTimeouts().put(OrganizationPageComposer.EMPLOYEES, Duration.ofMillis(100));
+        OrganizationPageComposer composer = composer(properties, backends(json("[]")));
+
+        ObjectNode page = composer.compose(1L).block();
+
+        assertEquals("PXL", page.path("organization").path("name").asText());
+        assertEquals(1, page.path("departments").size());
+        assertEquals(0, page.path("employees").size());
+        assertEquals(OrganizationPageComposer.EMPLOYEES, page.path("missing").get(0).asText());
+
+        composer = composer(new CompositionProperties(),
+                backends(Mono.just(ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR).build())));
+        page = composer.compose(1L).block();
+        assertEquals(1, page.path("missing").size());
+    }
+
+    @Test
+    public void testBranchesStopAtTheRequestDeadline() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DeadlineWebFilter webFilter = new DeadlineWebFilter(new DeadlineProperties(), meterRegistry);
+        List<String> sentBudgets = new CopyOnWriteArrayList<>();
+        WebClient.Builder builder = WebClient.builder()
+                .filter(new DeadlineExchangeFilter(meterRegistry.counter("deadline.exceeded", "stage", "call")))
+                .exchangeFunction(request -> {
+                    sentBudgets.add(request.headers().getFirst(RequestDeadline.HEADER));
+                    return json("[]");
+                });
+        OrganizationPageComposer composer = new OrganizationPageComposer(builder, new CompositionProperties(), objectMapper);
+
+        // without a deadline nothing is sent along; this also gets the WebClient warmed up
+        composer.compose(1L).block();
+        assertEquals(3, sentBudgets.size());
+        assertTrue(sentBudgets.stream().allMatch(budget -> budget == null));
+        sentBudgets.clear();
+
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/composite/organization/1")
+                .header(RequestDeadline.HEADER, "100"));
+        long start = System.nanoTime();
+        ResponseStatusException timedOut = assertThrows(ResponseStatusException.class,
+                () -> webFilter.filter(exchange, filtered -> composer.compose(1L).then()).block());
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        // the backends take 300ms, longer than the client is willing to wait; without the organization there is
+        // no page
+        assertTrue(elapsed.compareTo(BACKEND_LATENCY) < 0, "took " + elapsed);
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, timedOut.getStatusCode());
+        assertEquals(3, sentBudgets.size());
+        assertTrue(sentBudgets.stream().allMatch(budget -> Long.parseLong(budget) <= 100));
+
+        MockServerWebExchange expired = MockServerWebExchange.from(MockServerHttpRequest.get("/composite/organization/1")
+                .header(RequestDeadline.HEADER, "0"));
+        webFilter.filter(expired, filtered -> Mono.error(new AssertionError("handled after its deadline"))).block();
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, expired.getResponse().getStatusCode());
+        assertEquals(1.0, meterRegistry.counter("deadline.exceeded", "stage", "received").count());
+    }
+}
@@ -0,0 +1,82 @@
+package be.pxl.services;
+
+import be.pxl.services.discovery.FailedInstanceFilter;
+import be.pxl.services.discovery.FailedInstanceProperties;
+import be.pxl.services.discovery.FailedInstanceRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FailedInstanceTests {
+    private static final ServiceInstance FIRST = instance("employee-1", 8081);
+    private static final ServiceInstance SECOND = instance("employee-2", 8082);
+
+    private static ServiceInstance instance(String instanceId, int port) {
+        return new DefaultServiceInstance(instanceId, "employee-service", "localhost", port, false);
+    }
+
+    private static FailedInstanceRegistry registry(Duration quarantine) {
+        FailedInstanceProperties properties = new FailedInstanceProperties();
+        properties.setEnabled(true);
+        properties.setQuarantine(quarantine);
+        return new FailedInstanceRegistry(properties);
+    }
+
+    private static List<ServiceInstance> filter(FailedInstanceRegistry registry) {
+        return new FailedInstanceFilter(ServiceInstanceListSuppliers.from("employee-service", FIRST, SECOND), registry)
+                .get().blockFirst();
+    }
+
+    @Test
+    public void testFailedInstanceIsQuarantined() {
+        FailedInstanceRegistry registry = registry(Duration.ofMinutes(1));
+
+        registry.markFailed(FIRST);
+
+        assertTrue(registry.isQuarantined(FIRST));
+        assertFalse(registry.isQuarantined(SECOND));
+        assertEquals(List.of(SECOND), filter(registry));
+    }
+
+    @Test
+    public void testQuarantineEndsAfterItsDurationOrASuccessfulCall() throws InterruptedException {
+        FailedInstanceRegistry registry = registry(Duration.ofMillis(50));
+
+        registry.markFailed(FIRST);
+        registry.markFailed(SECOND);
+        registry.markSucceeded(SECOND);
+        assertTrue(registry.isQuarantined(FIRST));
+        assertFalse(registry.isQuarantined(SECOND));
+
+        Thread.sleep(100);
+        assertFalse(registry.isQuarantined(FIRST));
+        assertEquals(List.of(FIRST, SECOND), filter(registry));
+    }
+
+    @Test
+    public void testAllInstancesQuarantinedReturnsFullList() {
+        FailedInstanceRegistry registry = registry(Duration.ofMinutes(1));
+
+        registry.markFailed(FIRST);
+        registry.markFailed(SECOND);
+
+        assertEquals(List.of(FIRST, SECOND), filter(registry));
+    }
+
+    @Test
+    public void testNothingIsQuarantinedWhenDisabled() {
+        FailedInstanceProperties properties = new FailedInstanceProperties();
+        FailedInstanceRegistry registry = new FailedInstanceRegistry(properties);
+
+        registry.markFailed(FIRST);
+
+        assertFalse(registry.isQuarantined(FIRST));
+        assertEquals(List.of(FIRST, SECOND), filter(registry));
+    }
+}
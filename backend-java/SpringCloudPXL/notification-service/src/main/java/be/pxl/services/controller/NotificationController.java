@@ -1,11 +1,16 @@
 package be.pxl.services.controller;
 
 import be.pxl.services.domain.Notification;
+import be.pxl.services.domain.NotificationStats;
 import be.pxl.services.service.NotificationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
@@ -19,4 +24,22 @@ public class NotificationController {
     public void sendMessage(@RequestBody Notification notification) {
         notificationService.sendMessage(notification);
     }
+
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public void sendMessages(@RequestBody List<Notification> notifications) {
+        notificationService.sendMessages(notifications);
+    }
+
+    @GetMapping("/stats")
+    @ResponseStatus(HttpStatus.OK)
+    public NotificationStats getStats() {
+        return notificationService.getStats();
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam(required = false) Long after,
+                             @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return notificationService.subscribe(lastEventId != null ? lastEventId : after);
+    }
 }
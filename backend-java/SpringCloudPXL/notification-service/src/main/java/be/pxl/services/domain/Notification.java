@@ -5,11 +5,19 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
+
 @Data
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
 public class Notification {
+    private Long id;
+    private Instant timestamp;
     private String message;
     private String sender;
+    private String idempotencyKey;
+    /** Number of identical notifications this one stands for; greater than one for coalesced digests. */
+    @Builder.Default
+    private int count = 1;
 }
@@ -0,0 +1,24 @@
+package be.pxl.services.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class NotificationStats {
+    private long accepted;
+    private long rejected;
+    private int queued;
+    private long suppressed;
+    private long digests;
+    private long uncoalesced;
+    private int coalescingKeys;
+    private int subscribers;
+    private long disconnectedSlowConsumers;
+    private long lastOffset;
+    private long durableOffset;
+}
@@ -0,0 +1,86 @@
+package be.pxl.services.ingest;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded, lock-free multi-producer/single-consumer queue backed by a power-of-two ring. Producers claim
+ * slots with a CAS on the producer index and publish the element with a release store; the single consumer
+ * frees a slot before advancing its own index, which is what producers compare against to detect a full
+ * queue. Only one thread may call {@link #poll()} or {@link #drain(Consumer, int)}.
+ */
+public final class MpscArrayQueue<E> {
+    private final AtomicReferenceArray<E> buffer;
+    private final int mask;
+    private final AtomicLong producerIndex = new AtomicLong();
+    private volatile long consumerIndex;
+
+    public MpscArrayQueue(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(1, requestedCapacity - 1)) << 1;
+        this.buffer = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    public boolean offer(E element) {
+        long index;
+        do {
+            index = producerIndex.get();
+            if (index - consumerIndex > mask) {
+                return false;
+            }
+        } while (!producerIndex.compareAndSet(index, index + 1));
+        buffer.lazySet((int) index & mask, element);
+        return true;
+    }
+
+    /**
+     * Enqueues all elements or none of them, claiming a contiguous run of slots in a single CAS.
+     */
+    public boolean offerAll(List<? extends E> elements) {
+        int count = elements.size();
+        long index;
+        do {
+            index = producerIndex.get();
+            if (index + count - consumerIndex > mask + 1) {
+                return false;
+            }
+        } while (!producerIndex.compareAndSet(index, index + count));
+        for (int i = 0; i < count; i++) {
+            buffer.lazySet((int) (index + i) & mask, elements.get(i));
+        }
+        return true;
+    }
+
+    public E poll() {
+        long index = consumerIndex;
+        int offset = (int) index & mask;
+        E element = buffer.get(offset);
+        if (element == null) {
+            // either empty, or a producer has claimed the slot but not yet published into it
+            return null;
+        }
+        buffer.lazySet(offset, null);
+        consumerIndex = index + 1;
+        return element;
+    }
+
+    public int drain(Consumer<? super E> consumer, int limit) {
+        int drained = 0;
+        E element;
+        while (drained < limit && (element = poll()) != null) {
+            consumer.accept(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    public int size() {
+        return (int) Math.max(0, producerIndex.get() - consumerIndex);
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,126 @@
+package be.pxl.services.ingest;
+
+import be.pxl.services.domain.Notification;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Folds repeated notifications with the same sender, message and idempotency key into one. The first
+ * occurrence passes through immediately; repeats inside the window are counted instead of delivered and,
+ * once the window closes, reported as a single digest carrying that count.
+ * <p>
+ * Keys are grouped in time buckets by first sighting so expiry only ever looks at the oldest bucket. At
+ * most {@code maxKeys} keys are tracked; beyond that notifications pass through uncoalesced. Not thread
+ * safe: it is driven by the notification dispatcher.
+ */
+public class NotificationCoalescer {
+    private final long windowMillis;
+    private final long bucketMillis;
+    private final int maxKeys;
+    private final Map<Key, Entry> entries = new HashMap<>();
+    private final Deque<Bucket> buckets = new ArrayDeque<>();
+    private long suppressed;
+    private long digests;
+    private long untracked;
+
+    public NotificationCoalescer(NotificationCoalescingProperties properties) {
+        this.windowMillis = properties.getWindow().toMillis();
+        this.bucketMillis = Math.max(1, windowMillis / properties.getBuckets());
+        this.maxKeys = properties.getMaxKeys();
+    }
+
+    /**
+     * @return whether the notification should be delivered now
+     */
+    public boolean accept(Notification notification, long nowMillis) {
+        Key key = new Key(notification.getSender(), notification.getMessage(), notification.getIdempotencyKey());
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            entry.suppressed += notification.getCount();
+            suppressed += notification.getCount();
+            return false;
+        }
+        if (entries.size() >= maxKeys) {
+            untracked++;
+            return true;
+        }
+        entry = new Entry(key);
+        entries.put(key, entry);
+        bucketFor(nowMillis).entries.add(entry);
+        return true;
+    }
+
+    /**
+     * Closes every bucket that has fallen out of the window, handing a digest to {@code sink} for each key
+     * that had repeats.
+     */
+    public void expire(long nowMillis, Consumer<Notification> sink) {
+        while (!buckets.isEmpty() && buckets.peekFirst().start + windowMillis <= nowMillis) {
+            for (Entry entry : buckets.removeFirst().entries) {
+                entries.remove(entry.key);
+                if (entry.suppressed > 0) {
+                    digests++;
+                    sink.accept(Notification.builder()
+                            .sender(entry.key.sender())
+                            .message(entry.key.message())
+                            .idempotencyKey(entry.key.idempotencyKey())
+                            .count(entry.suppressed)
+                            .build());
+                }
+            }
+        }
+    }
+
+    public synchronized long getSuppressed() {
+        return suppressed;
+    }
+
+    public synchronized long getDigests() {
+        return digests;
+    }
+
+    public synchronized long getUntracked() {
+        return untracked;
+    }
+
+    public synchronized int getTrackedKeys() {
+        return entries.size();
+    }
+
+    private Bucket bucketFor(long nowMillis) {
+        long start = nowMillis - nowMillis % bucketMillis;
+        Bucket last = buckets.peekLast();
+        if (last == null || last.start < start) {
+            last = new Bucket(start);
+            buckets.addLast(last);
+        }
+        return last;
+    }
+
+    private record Key(String sender, String message, String idempotencyKey) {
+    }
+
+    private static final class Entry {
+        private final Key key;
+        private int suppressed;
+
+        private Entry(Key key) {
+            this.key = key;
+        }
+    }
+
+    private static final class Bucket {
+        private final long start;
+        private final List<Entry> entries = new ArrayList<>();
+
+        private Bucket(long start) {
+            this.start = start;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package be.pxl.services.ingest;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "notification.coalescing")
+public class NotificationCoalescingProperties {
+    private boolean enabled = true;
+    private Duration window = Duration.ofSeconds(5);
+    private int buckets = 10;
+    private int maxKeys = 100_000;
+}
@@ -0,0 +1,260 @@
+package be.pxl.services.ingest;
+
+import be.pxl.services.domain.Notification;
+import be.pxl.services.storage.NotificationLog;
+import be.pxl.services.storage.NotificationLogProperties;
+import be.pxl.services.stream.NotificationBroadcaster;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands incoming notifications from request threads to a single dispatcher thread through a lock-free
+ * MPSC queue. The dispatcher appends each drained batch to the notification log, publishes it to stream
+ * subscribers and, when synchronous acknowledgement is enabled, waits for one fsync per batch before
+ * releasing the request threads that submitted it. Repeated notifications are folded into digests by the
+ * {@link NotificationCoalescer} on the way in.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NotificationDispatcher {
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long WAIT_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final int WAIT_SPINS = 100;
+
+    private final NotificationIngestProperties properties;
+    private final NotificationCoalescingProperties coalescingProperties;
+    private final NotificationLogProperties logProperties;
+    private final NotificationLog notificationLog;
+    private final NotificationBroadcaster broadcaster;
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private MpscArrayQueue<Envelope> queue;
+    private NotificationCoalescer coalescer;
+    private Thread thread;
+    private volatile boolean running;
+    private volatile boolean sleeping;
+
+    @PostConstruct
+    public void start() {
+        queue = new MpscArrayQueue<>(properties.getCapacity());
+        if (coalescingProperties.isEnabled()) {
+            coalescer = new NotificationCoalescer(coalescingProperties);
+        }
+        running = true;
+        thread = new Thread(this::run, "notification-dispatcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Queues the notifications in slices of at most one dispatcher batch, so batches larger than the queue
+     * still fit. Only the first slice may be rejected; once part of a batch is queued the rest waits for room
+     * behind it, as every slice does under {@link RejectionPolicy#BLOCK}.
+     */
+    public void dispatch(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        Acknowledgement ack = logProperties.isSyncAcknowledge() ? new Acknowledgement(notifications.size()) : null;
+        List<Envelope> envelopes = new ArrayList<>(notifications.size());
+        for (Notification notification : notifications) {
+            envelopes.add(new Envelope(notification, ack));
+        }
+        boolean wait = properties.getRejectionPolicy() == RejectionPolicy.BLOCK;
+        int sliceSize = Math.min(properties.getBatchSize(), queue.capacity());
+        for (int from = 0; from < envelopes.size(); from += sliceSize) {
+            List<Envelope> slice = envelopes.subList(from, Math.min(from + sliceSize, envelopes.size()));
+            if (!enqueue(slice, wait || from > 0)) {
+                accepted.addAndGet(from);
+                rejected.addAndGet(envelopes.size() - from);
+                throw new NotificationRejectedException(envelopes.size() - from);
+            }
+        }
+        accepted.addAndGet(envelopes.size());
+        if (ack != null) {
+            try {
+                ack.done.join();
+            } catch (CompletionException e) {
+                // rethrow the cause so its response status (e.g. 503 for an unavailable log) applies
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+    }
+
+    // waiting producers spin briefly and then park, waking the dispatcher in case it went idle meanwhile
+    private boolean enqueue(List<Envelope> slice, boolean wait) {
+        int attempts = 0;
+        while (!queue.offerAll(slice)) {
+            if (!wait || !running) {
+                return false;
+            }
+            LockSupport.unpark(thread);
+            if (++attempts < WAIT_SPINS) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(WAIT_PARK_NANOS);
+            }
+        }
+        if (sleeping) {
+            LockSupport.unpark(thread);
+        }
+        return true;
+    }
+
+    public long getAccepted() {
+        return accepted.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public NotificationCoalescer getCoalescer() {
+        return coalescer;
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void run() {
+        List<Envelope> batch = new ArrayList<>(properties.getBatchSize());
+        while (running || queue.size() > 0) {
+            queue.drain(batch::add, properties.getBatchSize());
+            expireCoalesced();
+            if (batch.isEmpty()) {
+                sleeping = true;
+                if (running && queue.size() == 0) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+                sleeping = false;
+                continue;
+            }
+            process(batch);
+            batch.clear();
+        }
+    }
+
+    private void process(List<Envelope> batch) {
+        long lastId = 0;
+        boolean acknowledge = false;
+        for (Envelope envelope : batch) {
+            try {
+                if (shouldDeliver(envelope.notification)) {
+                    lastId = deliver(envelope.notification);
+                }
+                acknowledge |= envelope.ack != null;
+            } catch (RuntimeException e) {
+                log.error("Could not process notification from {}", envelope.notification.getSender(), e);
+                envelope.failed = true;
+                if (envelope.ack != null) {
+                    envelope.ack.done.completeExceptionally(e);
+                }
+            }
+        }
+        if (acknowledge) {
+            try {
+                notificationLog.awaitDurable(lastId);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(batch, new IllegalStateException("Interrupted while waiting for notifications to be persisted", e));
+            } catch (RuntimeException e) {
+                fail(batch, e);
+            }
+            for (Envelope envelope : batch) {
+                if (envelope.ack != null && !envelope.failed) {
+                    envelope.ack.countDown();
+                }
+            }
+        }
+    }
+
+    private boolean shouldDeliver(Notification notification) {
+        if (coalescer == null) {
+            return true;
+        }
+        synchronized (coalescer) {
+            return coalescer.accept(notification, System.currentTimeMillis());
+        }
+    }
+
+    private void expireCoalesced() {
+        if (coalescer == null) {
+            return;
+        }
+        synchronized (coalescer) {
+            coalescer.expire(System.currentTimeMillis(), digest -> {
+                try {
+                    deliver(digest);
+                } catch (RuntimeException e) {
+                    log.error("Could not deliver digest of {} notifications from {}", digest.getCount(), digest.getSender(), e);
+                }
+            });
+        }
+    }
+
+    private long deliver(Notification notification) {
+        Notification stored = notificationLog.append(notification);
+        broadcaster.publish(stored);
+        log.debug("Sending {} (x{}) to {}", stored.getMessage(), stored.getCount(), stored.getSender());
+        return stored.getId();
+    }
+
+    private static void fail(List<Envelope> batch, RuntimeException cause) {
+        for (Envelope envelope : batch) {
+            envelope.failed = true;
+            if (envelope.ack != null) {
+                envelope.ack.done.completeExceptionally(cause);
+            }
+        }
+    }
+
+    private static final class Envelope {
+        private final Notification notification;
+        private final Acknowledgement ack;
+        private boolean failed;
+
+        private Envelope(Notification notification, Acknowledgement ack) {
+            this.notification = notification;
+            this.ack = ack;
+        }
+    }
+
+    private static final class Acknowledgement {
+        private final AtomicInteger remaining;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private Acknowledgement(int count) {
+            this.remaining = new AtomicInteger(count);
+        }
+
+        void countDown() {
+            if (remaining.decrementAndGet() == 0) {
+                done.complete(null);
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package be.pxl.services.ingest;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "notification.ingest")
+public class NotificationIngestProperties {
+    private int capacity = 65_536;
+    private int batchSize = 1024;
+    private RejectionPolicy rejectionPolicy = RejectionPolicy.REJECT;
+}
@@ -0,0 +1,11 @@
+package be.pxl.services.ingest;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class NotificationRejectedException extends RuntimeException {
+    public NotificationRejectedException(int count) {
+        super("Notification ingest queue is full, rejected " + count + " notification(s)");
+    }
+}
@@ -0,0 +1,8 @@
+package be.pxl.services.ingest;
+
+public enum RejectionPolicy {
+    /** Fail the request with 503 so the caller can back off and retry. */
+    REJECT,
+    /** Hold the request thread until the queue has room, slowing the producer down without reordering the queue. */
+    BLOCK
+}
@@ -1,17 +1,56 @@
 package be.pxl.services.service;
 
 import be.pxl.services.domain.Notification;
+import be.pxl.services.domain.NotificationStats;
+import be.pxl.services.ingest.NotificationCoalescer;
+import be.pxl.services.ingest.NotificationDispatcher;
+import be.pxl.services.storage.NotificationLog;
+import be.pxl.services.stream.NotificationBroadcaster;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class NotificationService {
+    private final NotificationDispatcher dispatcher;
+    private final NotificationBroadcaster broadcaster;
+    private final NotificationLog notificationLog;
+
     public void sendMessage(Notification notification) {
-        log.info("Receiving notification...");
-        log.info("Sending... {}", notification.getMessage());
-        log.info("TO {}", notification.getSender());
+        log.debug("Receiving notification from {}", notification.getSender());
+        dispatcher.dispatch(List.of(notification));
+    }
+
+    public void sendMessages(List<Notification> notifications) {
+        log.debug("Receiving batch of {} notifications", notifications.size());
+        dispatcher.dispatch(notifications);
+    }
+
+    public SseEmitter subscribe(Long lastEventId) {
+        return broadcaster.subscribe(lastEventId);
+    }
+
+    public NotificationStats getStats() {
+        NotificationStats.NotificationStatsBuilder stats = NotificationStats.builder()
+                .accepted(dispatcher.getAccepted())
+                .rejected(dispatcher.getRejected())
+                .queued(dispatcher.getQueueSize())
+                .subscribers(broadcaster.getSubscriberCount())
+                .disconnectedSlowConsumers(broadcaster.getDisconnectedSlowConsumers())
+                .lastOffset(notificationLog.getLastOffset())
+                .durableOffset(notificationLog.getDurableOffset());
+        NotificationCoalescer coalescer = dispatcher.getCoalescer();
+        if (coalescer != null) {
+            stats.suppressed(coalescer.getSuppressed())
+                    .digests(coalescer.getDigests())
+                    .uncoalesced(coalescer.getUntracked())
+                    .coalescingKeys(coalescer.getTrackedKeys());
+        }
+        return stats.build();
     }
 }
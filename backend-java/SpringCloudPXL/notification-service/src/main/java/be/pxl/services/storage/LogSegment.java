@@ -0,0 +1,159 @@
+package be.pxl.services.storage;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * One file of the notification log. Records are stored as {@code [length][crc32][payload]}; the file name
+ * is the offset of its first record. Record positions are kept in memory so reads by offset are a single
+ * positional read.
+ */
+@Slf4j
+final class LogSegment implements Closeable {
+    static final String SUFFIX = ".log";
+    // record positions are stored as int
+    static final long MAX_BYTES = Integer.MAX_VALUE;
+    private static final int HEADER_BYTES = 8;
+
+    private final long baseOffset;
+    private final Path path;
+    private final FileChannel channel;
+    private int[] positions = new int[1024];
+    private int count;
+    private long size;
+
+    private LogSegment(Path path, long baseOffset) throws IOException {
+        this.path = path;
+        this.baseOffset = baseOffset;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    static LogSegment create(Path directory, long baseOffset) throws IOException {
+        return new LogSegment(directory.resolve(String.format("%020d%s", baseOffset, SUFFIX)), baseOffset);
+    }
+
+    /**
+     * Opens an existing segment and rebuilds its index. Anything after the last complete record with a valid
+     * checksum is the residue of an unclean shutdown and is truncated.
+     */
+    static LogSegment open(Path path) throws IOException {
+        String name = path.getFileName().toString();
+        LogSegment segment = new LogSegment(path, Long.parseLong(name.substring(0, name.length() - SUFFIX.length())));
+        segment.recover();
+        return segment;
+    }
+
+    private void recover() throws IOException {
+        long fileSize = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        long position = 0;
+        while (position + HEADER_BYTES <= fileSize) {
+            header.clear();
+            channel.read(header, position);
+            header.flip();
+            int length = header.getInt();
+            int crc = header.getInt();
+            if (length <= 0 || position + HEADER_BYTES + length > fileSize) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            channel.read(payload, position + HEADER_BYTES);
+            if (checksum(payload.array()) != crc) {
+                break;
+            }
+            index(position);
+            position += HEADER_BYTES + length;
+        }
+        size = position;
+        if (position < fileSize) {
+            log.warn("Truncating {} from {} to {} bytes after unclean shutdown", path, fileSize, position);
+            channel.truncate(position);
+            channel.force(true);
+        }
+    }
+
+    synchronized long append(byte[] payload) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        record.putInt(payload.length).putInt(checksum(payload)).put(payload).flip();
+        long position = size;
+        while (record.hasRemaining()) {
+            channel.write(record, position + record.position());
+        }
+        index(position);
+        size += HEADER_BYTES + payload.length;
+        return baseOffset + count - 1;
+    }
+
+    byte[] read(long offset) throws IOException {
+        long position;
+        synchronized (this) {
+            position = positions[(int) (offset - baseOffset)];
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        channel.read(header, position);
+        header.flip();
+        ByteBuffer payload = ByteBuffer.allocate(header.getInt());
+        while (payload.hasRemaining()) {
+            if (channel.read(payload, position + HEADER_BYTES + payload.position()) < 0) {
+                throw new IOException("Unexpected end of segment " + path);
+            }
+        }
+        return payload.array();
+    }
+
+    void flush() throws IOException {
+        channel.force(false);
+    }
+
+    long getBaseOffset() {
+        return baseOffset;
+    }
+
+    synchronized long getNextOffset() {
+        return baseOffset + count;
+    }
+
+    synchronized long getSize() {
+        return size;
+    }
+
+    Instant getLastModified() throws IOException {
+        return Files.getLastModifiedTime(path).toInstant();
+    }
+
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(path);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void index(long position) throws IOException {
+        if (position > MAX_BYTES) {
+            throw new IOException("Segment " + path + " exceeds " + MAX_BYTES + " bytes");
+        }
+        if (count == positions.length) {
+            positions = Arrays.copyOf(positions, count * 2);
+        }
+        positions[count++] = (int) position;
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
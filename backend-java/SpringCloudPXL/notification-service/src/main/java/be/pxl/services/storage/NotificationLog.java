@@ -0,0 +1,256 @@
+package be.pxl.services.storage;
+
+import be.pxl.services.domain.Notification;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Durable, append-only log of notifications split into segment files. The offset of a record doubles as
+ * the notification id. Appends only write to the page cache; a background flusher forces the active
+ * segment to disk and acknowledges everything written before that fsync at once (group commit), so
+ * concurrent writers waiting for durability share a single fsync. A failing fsync is retried with
+ * exponential backoff; meanwhile writers waiting for durability fail instead of blocking.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NotificationLog {
+    private final NotificationLogProperties properties;
+    private final ObjectMapper objectMapper;
+    private final ConcurrentSkipListMap<Long, LogSegment> segments = new ConcurrentSkipListMap<>();
+    private final Object appendLock = new Object();
+    private final Object flushMonitor = new Object();
+    private LogSegment active;
+    private volatile long writtenOffset;
+    private volatile long durableOffset;
+    private volatile boolean running;
+    private volatile IOException flushFailure;
+    private Thread flusher;
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (properties.getSegmentBytes() <= 0 || properties.getSegmentBytes() > LogSegment.MAX_BYTES) {
+            throw new IllegalStateException("notification.log.segment-bytes must be between 1 and " + LogSegment.MAX_BYTES);
+        }
+        Path directory = properties.getDirectory();
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().endsWith(LogSegment.SUFFIX)).sorted().toList()) {
+                LogSegment segment = LogSegment.open(file);
+                segments.put(segment.getBaseOffset(), segment);
+            }
+        }
+        active = segments.isEmpty() ? roll(1) : segments.lastEntry().getValue();
+        writtenOffset = active.getNextOffset() - 1;
+        durableOffset = writtenOffset;
+        log.info("Opened notification log in {} with {} segment(s), next offset {}", directory, segments.size(), writtenOffset + 1);
+
+        running = true;
+        flusher = new Thread(this::flushLoop, "notification-log-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Appends the notification, assigning its id and timestamp. The record is not yet guaranteed to be on
+     * disk; use {@link #awaitDurable(long)} for that.
+     */
+    public Notification append(Notification notification) {
+        try {
+            synchronized (appendLock) {
+                if (active.getSize() >= properties.getSegmentBytes()) {
+                    active.flush();
+                    active = roll(active.getNextOffset());
+                }
+                notification.setId(active.getNextOffset());
+                notification.setTimestamp(Instant.now());
+                active.append(objectMapper.writeValueAsBytes(notification));
+                writtenOffset = notification.getId();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append notification", e);
+        }
+        synchronized (flushMonitor) {
+            flushMonitor.notifyAll();
+        }
+        return notification;
+    }
+
+    /**
+     * Waits until the record at {@code offset} is on disk. Fails with {@link NotificationLogUnavailableException}
+     * while the last flush failed, or when no flush covered the record within the durable timeout.
+     */
+    public void awaitDurable(long offset) throws InterruptedException {
+        long deadline = System.nanoTime() + properties.getDurableTimeout().toNanos();
+        synchronized (flushMonitor) {
+            while (durableOffset < offset) {
+                if (!running) {
+                    throw new IllegalStateException("Notification log is closed");
+                }
+                if (flushFailure != null) {
+                    throw new NotificationLogUnavailableException("Notification log could not be flushed", flushFailure);
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new NotificationLogUnavailableException("Notification " + offset + " was not flushed within "
+                            + properties.getDurableTimeout());
+                }
+                TimeUnit.NANOSECONDS.timedWait(flushMonitor, remaining);
+            }
+        }
+    }
+
+    /**
+     * Reads the notifications with an offset in {@code (afterOffset, upToOffset]}, skipping anything that
+     * has already been removed by retention.
+     */
+    public List<Notification> read(long afterOffset, long upToOffset) {
+        List<Notification> result = new ArrayList<>();
+        Map.Entry<Long, LogSegment> first = segments.floorEntry(afterOffset + 1);
+        Long fromKey = first != null ? first.getKey() : segments.firstKey();
+        for (LogSegment segment : segments.tailMap(fromKey, true).values()) {
+            long end = Math.min(segment.getNextOffset() - 1, upToOffset);
+            for (long offset = Math.max(afterOffset + 1, segment.getBaseOffset()); offset <= end; offset++) {
+                try {
+                    result.add(objectMapper.readValue(segment.read(offset), Notification.class));
+                } catch (IOException e) {
+                    log.warn("Could not read notification {}: {}", offset, e.getMessage());
+                    return result;
+                }
+            }
+            if (end >= upToOffset) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    public long getLastOffset() {
+        return writtenOffset;
+    }
+
+    public int getMaxReplay() {
+        return properties.getMaxReplay();
+    }
+
+    public long getDurableOffset() {
+        return durableOffset;
+    }
+
+    @Scheduled(fixedDelayString = "${notification.log.retention-check-interval:60000}")
+    public void enforceRetention() {
+        Instant expiry = Instant.now().minus(properties.getRetentionAge());
+        long totalBytes = segments.values().stream().mapToLong(LogSegment::getSize).sum();
+        for (LogSegment segment : segments.values()) {
+            if (segment == active) {
+                break;
+            }
+            try {
+                if (totalBytes <= properties.getRetentionBytes() && segment.getLastModified().isAfter(expiry)) {
+                    break;
+                }
+                segments.remove(segment.getBaseOffset());
+                totalBytes -= segment.getSize();
+                segment.delete();
+                log.info("Deleted notification log segment starting at offset {}", segment.getBaseOffset());
+            } catch (IOException e) {
+                log.warn("Could not delete notification log segment {}: {}", segment.getBaseOffset(), e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException, InterruptedException {
+        running = false;
+        synchronized (flushMonitor) {
+            flushMonitor.notifyAll();
+        }
+        flusher.join();
+        synchronized (appendLock) {
+            active.flush();
+            for (LogSegment segment : segments.values()) {
+                segment.close();
+            }
+        }
+    }
+
+    private LogSegment roll(long baseOffset) throws IOException {
+        LogSegment segment = LogSegment.create(properties.getDirectory(), baseOffset);
+        segments.put(baseOffset, segment);
+        return segment;
+    }
+
+    private void flushLoop() {
+        long retryDelay = properties.getFlushRetryBackoff().toMillis();
+        while (running) {
+            try {
+                synchronized (flushMonitor) {
+                    while (running && durableOffset >= writtenOffset) {
+                        flushMonitor.wait();
+                    }
+                }
+                long target;
+                LogSegment segment;
+                synchronized (appendLock) {
+                    target = writtenOffset;
+                    segment = active;
+                }
+                segment.flush();
+                synchronized (flushMonitor) {
+                    durableOffset = target;
+                    flushFailure = null;
+                    flushMonitor.notifyAll();
+                }
+                retryDelay = properties.getFlushRetryBackoff().toMillis();
+            } catch (IOException e) {
+                if (flushFailure == null) {
+                    log.error("Could not flush notification log, retrying in {} ms", retryDelay, e);
+                } else {
+                    log.warn("Could not flush notification log, retrying in {} ms: {}", retryDelay, e.getMessage());
+                }
+                synchronized (flushMonitor) {
+                    flushFailure = e;
+                    flushMonitor.notifyAll();
+                }
+                try {
+                    backOff(retryDelay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                retryDelay = Math.min(retryDelay * 2, properties.getFlushRetryMaxBackoff().toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // appends notify the monitor as well, so wait out the full delay unless the log is closed
+    private void backOff(long millis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + millis;
+        synchronized (flushMonitor) {
+            long remaining;
+            while (running && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                flushMonitor.wait(remaining);
+            }
+        }
+    }
+}
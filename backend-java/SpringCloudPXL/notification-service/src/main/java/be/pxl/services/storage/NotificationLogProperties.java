@@ -0,0 +1,21 @@
+package be.pxl.services.storage;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "notification.log")
+public class NotificationLogProperties {
+    private Path directory = Path.of("data", "notification-log");
+    private long segmentBytes = 64L * 1024 * 1024;
+    private long retentionBytes = 1024L * 1024 * 1024;
+    private Duration retentionAge = Duration.ofDays(7);
+    private boolean syncAcknowledge = true;
+    private Duration durableTimeout = Duration.ofSeconds(10);
+    private Duration flushRetryBackoff = Duration.ofMillis(100);
+    private Duration flushRetryMaxBackoff = Duration.ofSeconds(5);
+    private int maxReplay = 10_000;
+}
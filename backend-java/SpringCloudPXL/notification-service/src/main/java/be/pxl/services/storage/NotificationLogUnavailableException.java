@@ -0,0 +1,15 @@
+package be.pxl.services.storage;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class NotificationLogUnavailableException extends RuntimeException {
+    public NotificationLogUnavailableException(String message) {
+        super(message);
+    }
+
+    public NotificationLogUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,180 @@
+package be.pxl.services.stream;
+
+import be.pxl.services.domain.Notification;
+import be.pxl.services.storage.NotificationLog;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans notifications out to server-sent event subscribers. Publishing only enqueues into a bounded
+ * per-subscriber queue; a small shared pool of sender threads drains those queues, so producers never
+ * wait on the network. A subscriber whose queue of live notifications overflows is disconnected and is
+ * expected to reconnect with its Last-Event-ID, at which point it is replayed from the ring buffer, or
+ * from the durable notification log when it has fallen further behind than the ring buffer reaches.
+ */
+@Slf4j
+@Component
+public class NotificationBroadcaster {
+    private final NotificationStreamProperties properties;
+    private final NotificationLog notificationLog;
+    private final NotificationRingBuffer buffer;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders;
+    private final AtomicLong disconnectedSlowConsumers = new AtomicLong();
+
+    public NotificationBroadcaster(NotificationStreamProperties properties, NotificationLog notificationLog) {
+        this.properties = properties;
+        this.notificationLog = notificationLog;
+        this.buffer = new NotificationRingBuffer(properties.getBufferSize());
+        AtomicInteger threadCount = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(properties.getSenderThreads(), r -> {
+            Thread thread = new Thread(r, "notification-sse-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long lastOffset = notificationLog.getLastOffset();
+        notificationLog.read(Math.max(0, lastOffset - properties.getBufferSize()), lastOffset).forEach(buffer::add);
+    }
+
+    public void publish(Notification notification) {
+        synchronized (buffer) {
+            buffer.add(notification);
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(notification);
+            }
+        }
+    }
+
+    public SseEmitter subscribe(Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscribers.remove(subscriber));
+        if (lastEventId == null) {
+            subscribers.add(subscriber);
+            return emitter;
+        }
+        // the durable log is read without holding the lock publishers need; the part still in the ring buffer
+        // is taken under it together with the registration, so nothing is missed or sent twice in between
+        List<Notification> missed = new ArrayList<>();
+        long after = lastEventId;
+        while (true) {
+            synchronized (buffer) {
+                List<Notification> buffered = buffer.readAfter(after);
+                long firstBuffered = buffered.isEmpty() ? buffer.getLastId() + 1 : buffered.get(0).getId();
+                if (firstBuffered <= after + 1) {
+                    missed.addAll(buffered);
+                    subscriber.replay(missed);
+                    subscribers.add(subscriber);
+                    return emitter;
+                }
+            }
+            long upTo = buffer.getLastId();
+            missed.addAll(notificationLog.read(Math.max(after, upTo - notificationLog.getMaxReplay()), upTo));
+            after = upTo;
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public long getDisconnectedSlowConsumers() {
+        return disconnectedSlowConsumers.get();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Queue<Notification> replay = new ConcurrentLinkedQueue<>();
+        private final Queue<Notification> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void replay(List<Notification> missed) {
+            replay.addAll(missed);
+            schedule();
+        }
+
+        void offer(Notification notification) {
+            if (closed) {
+                return;
+            }
+            if (size.incrementAndGet() > properties.getSubscriberQueueCapacity()) {
+                disconnectedSlowConsumers.incrementAndGet();
+                close();
+                return;
+            }
+            pending.add(notification);
+            schedule();
+        }
+
+        private void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Notification notification;
+                while (!closed && (notification = replay.poll()) != null) {
+                    send(notification);
+                }
+                while (!closed && (notification = pending.poll()) != null) {
+                    size.decrementAndGet();
+                    send(notification);
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping notification subscriber: {}", e.getMessage());
+                close();
+            } finally {
+                draining.set(false);
+            }
+            if (!closed && !pending.isEmpty()) {
+                schedule();
+            }
+        }
+
+        private void send(Notification notification) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(notification.getId()))
+                    .name("notification")
+                    .data(notification));
+        }
+
+        private void close() {
+            closed = true;
+            subscribers.remove(this);
+            replay.clear();
+            pending.clear();
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package be.pxl.services.stream;
+
+import be.pxl.services.domain.Notification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-size ring of the most recent notifications, indexed by notification id. Ids are expected to be
+ * assigned contiguously, so the slot of a notification is simply {@code id % capacity}.
+ */
+public class NotificationRingBuffer {
+    private final Notification[] slots;
+    private long lastId;
+
+    public NotificationRingBuffer(int capacity) {
+        this.slots = new Notification[capacity];
+    }
+
+    public synchronized void add(Notification notification) {
+        slots[slot(notification.getId())] = notification;
+        lastId = Math.max(lastId, notification.getId());
+    }
+
+    public synchronized List<Notification> readAfter(long afterId) {
+        long from = Math.max(afterId + 1, lastId - slots.length + 1);
+        List<Notification> result = new ArrayList<>();
+        for (long id = Math.max(from, 1); id <= lastId; id++) {
+            Notification notification = slots[slot(id)];
+            if (notification != null && notification.getId() == id) {
+                result.add(notification);
+            }
+        }
+        return result;
+    }
+
+    public synchronized long getLastId() {
+        return lastId;
+    }
+
+    private int slot(long id) {
+        return (int) (id % slots.length);
+    }
+}
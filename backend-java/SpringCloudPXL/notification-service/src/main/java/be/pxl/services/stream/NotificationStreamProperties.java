@@ -0,0 +1,15 @@
+package be.pxl.services.stream;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "notification.stream")
+public class NotificationStreamProperties {
+    private int bufferSize = 1024;
+    private int subscriberQueueCapacity = 256;
+    private int senderThreads = 4;
+    private Duration timeout = Duration.ofMinutes(30);
+}
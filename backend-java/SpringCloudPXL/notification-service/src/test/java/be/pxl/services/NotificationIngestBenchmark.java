@@ -0,0 +1,109 @@
+package be.pxl.services;
+
+import be.pxl.services.domain.Notification;
+import be.pxl.services.ingest.NotificationCoalescingProperties;
+import be.pxl.services.ingest.NotificationDispatcher;
+import be.pxl.services.ingest.NotificationIngestProperties;
+import be.pxl.services.ingest.RejectionPolicy;
+import be.pxl.services.storage.NotificationLog;
+import be.pxl.services.storage.NotificationLogProperties;
+import be.pxl.services.stream.NotificationBroadcaster;
+import be.pxl.services.stream.NotificationStreamProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * End-to-end ingest throughput: producer threads dispatch batches through the MPSC queue into the durable
+ * log, with the production defaults for queue capacity, batch size and synchronous acknowledgement. Fails when
+ * the best round stays under {@code -Dbenchmark.min-rate} notifications/s (100k by default). Not part of the
+ * regular test run; start it explicitly with
+ * {@code mvn -pl notification-service test -Dtest=NotificationIngestBenchmark}, optionally overriding
+ * {@code -Dbenchmark.producers}, {@code -Dbenchmark.batch}, {@code -Dbenchmark.notifications} and
+ * {@code -Dbenchmark.min-rate}.
+ */
+@Slf4j
+public class NotificationIngestBenchmark {
+    private static final int PRODUCERS = Integer.getInteger("benchmark.producers", 4);
+    private static final int BATCH = Integer.getInteger("benchmark.batch", 500);
+    private static final int NOTIFICATIONS = Integer.getInteger("benchmark.notifications", 1_000_000);
+    private static final int MIN_RATE = Integer.getInteger("benchmark.min-rate", 100_000);
+    private static final int ROUNDS = 3;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void benchmarkIngestThroughput() throws Exception {
+        NotificationLogProperties logProperties = new NotificationLogProperties();
+        logProperties.setDirectory(directory);
+        NotificationLog notificationLog = new NotificationLog(logProperties, new ObjectMapper().findAndRegisterModules());
+        notificationLog.open();
+        NotificationIngestProperties ingestProperties = new NotificationIngestProperties();
+        ingestProperties.setRejectionPolicy(RejectionPolicy.BLOCK);
+        NotificationDispatcher dispatcher = new NotificationDispatcher(ingestProperties,
+                new NotificationCoalescingProperties(), logProperties, notificationLog,
+                new NotificationBroadcaster(new NotificationStreamProperties(), notificationLog));
+        dispatcher.start();
+        ExecutorService executor = Executors.newFixedThreadPool(PRODUCERS);
+        try {
+            run(dispatcher, executor, NOTIFICATIONS / 10);
+            double bestRate = 0;
+            for (int round = 1; round <= ROUNDS; round++) {
+                long started = System.nanoTime();
+                run(dispatcher, executor, NOTIFICATIONS);
+                double seconds = (System.nanoTime() - started) / 1e9;
+                bestRate = Math.max(bestRate, NOTIFICATIONS / seconds);
+                log.info("Round {}: {} notifications from {} producers in batches of {} took {} s, {} notifications/s",
+                        round, NOTIFICATIONS, PRODUCERS, BATCH, String.format("%.2f", seconds),
+                        String.format("%.0f", NOTIFICATIONS / seconds));
+            }
+            assertEquals(0, dispatcher.getRejected());
+            assertTrue(bestRate >= MIN_RATE, String.format("%.0f notifications/s, expected at least %d", bestRate, MIN_RATE));
+            assertEquals(notificationLog.getLastOffset(), notificationLog.getDurableOffset());
+        } finally {
+            executor.shutdown();
+            dispatcher.stop();
+            notificationLog.close();
+        }
+    }
+
+    private static void run(NotificationDispatcher dispatcher, ExecutorService executor, int notifications)
+            throws Exception {
+        int batchesPerProducer = notifications / PRODUCERS / BATCH;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> producers = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            String sender = "producer-" + p;
+            producers.add(executor.submit(() -> {
+                start.await();
+                for (int b = 0; b < batchesPerProducer; b++) {
+                    int batch = b;
+                    dispatcher.dispatch(IntStream.range(0, BATCH)
+                            .mapToObj(i -> Notification.builder()
+                                    .message("Employee " + batch + "-" + i + " created")
+                                    .sender(sender)
+                                    .build())
+                            .toList());
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> producer : producers) {
+            producer.get();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package be.pxl.services;
+
+import be.pxl.services.domain.Notification;
+import be.pxl.services.ingest.MpscArrayQueue;
+import be.pxl.services.ingest.NotificationCoalescer;
+import be.pxl.services.ingest.NotificationCoalescingProperties;
+import be.pxl.services.ingest.NotificationDispatcher;
+import be.pxl.services.ingest.NotificationIngestProperties;
+import be.pxl.services.ingest.RejectionPolicy;
+import be.pxl.services.storage.NotificationLog;
+import be.pxl.services.storage.NotificationLogProperties;
+import be.pxl.services.stream.NotificationBroadcaster;
+import be.pxl.services.stream.NotificationStreamProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NotificationIngestTests {
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testQueueRejectsWhenFull() {
+        MpscArrayQueue<Integer> queue = new MpscArrayQueue<>(4);
+
+        assertEquals(4, queue.capacity());
+        assertTrue(queue.offerAll(List.of(1, 2, 3)));
+        assertFalse(queue.offerAll(List.of(4, 5)));
+        assertTrue(queue.offer(4));
+        assertFalse(queue.offer(5));
+
+        assertEquals(1, queue.poll());
+        assertTrue(queue.offer(5));
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(4, queue.drain(drained::add, 10));
+        assertEquals(List.of(2, 3, 4, 5), drained);
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void testConcurrentProducersDeliverEveryElementInProducerOrder() throws Exception {
+        int producers = 4;
+        int perProducer = 25_000;
+        MpscArrayQueue<long[]> queue = new MpscArrayQueue<>(1024);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (long i = 0; i < perProducer; i++) {
+                    long[] element = {producer, i};
+                    while (!queue.offer(element)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+        }
+
+        long[] expected = new long[producers];
+        int received = 0;
+        start.countDown();
+        while (received < producers * perProducer) {
+            long[] element = queue.poll();
+            if (element == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            assertEquals(expected[(int) element[0]]++, element[1]);
+            received++;
+        }
+        executor.shutdown();
+
+        assertNull(queue.poll());
+        for (long count : expected) {
+            assertEquals(perProducer, count);
+        }
+    }
+
+    private static NotificationCoalescer coalescer(int maxKeys) {
+        NotificationCoalescingProperties properties = new NotificationCoalescingProperties();
+        properties.setWindow(Duration.ofSeconds(5));
+        properties.setBuckets(5);
+        properties.setMaxKeys(maxKeys);
+        return new NotificationCoalescer(properties);
+    }
+
+    private static Notification notification(String message, String idempotencyKey) {
+        return Notification.builder()
+                .message(message)
+                .sender("Tom")
+                .idempotencyKey(idempotencyKey)
+                .build();
+    }
+
+    @Test
+    public void testCoalescerFoldsRepeatsIntoDigest() {
+        NotificationCoalescer coalescer = coalescer(100);
+
+        assertTrue(coalescer.accept(notification("Employee Created", null), 1_000));
+        for (int i = 0; i < 9; i++) {
+            assertFalse(coalescer.accept(notification("Employee Created", null), 1_500 + i));
+        }
+        assertTrue(coalescer.accept(notification("Employee Created", "import-2"), 1_600));
+        assertTrue(coalescer.accept(notification("Department Created", null), 1_700));
+
+        List<Notification> digests = new ArrayList<>();
+        coalescer.expire(5_999, digests::add);
+        assertTrue(digests.isEmpty());
+        coalescer.expire(6_000, digests::add);
+
+        assertEquals(1, digests.size());
+        assertEquals("Employee Created", digests.get(0).getMessage());
+        assertEquals(9, digests.get(0).getCount());
+        assertEquals(9, coalescer.getSuppressed());
+        assertEquals(1, coalescer.getDigests());
+        assertEquals(0, coalescer.getTrackedKeys());
+        assertTrue(coalescer.accept(notification("Employee Created", null), 6_001));
+    }
+
+    @Test
+    public void testCoalescerPassesThroughBeyondMaxKeys() {
+        NotificationCoalescer coalescer = coalescer(2);
+
+        assertTrue(coalescer.accept(notification("a", null), 1_000));
+        assertTrue(coalescer.accept(notification("b", null), 1_000));
+        assertTrue(coalescer.accept(notification("c", null), 1_000));
+        assertTrue(coalescer.accept(notification("c", null), 1_000));
+
+        assertEquals(2, coalescer.getTrackedKeys());
+        assertEquals(2, coalescer.getUntracked());
+    }
+
+    @Test
+    public void testNotificationCountDefaultsToOneWhenDeserialized() throws Exception {
+        Notification notification = new ObjectMapper()
+                .readValue("{\"message\":\"hi\",\"sender\":\"Tom\"}", Notification.class);
+
+        assertEquals(1, notification.getCount());
+    }
+
+    @Test
+    public void testBatchesLargerThanTheQueueAreQueuedInOrderBehindWaitingProducers() throws Exception {
+        NotificationLogProperties logProperties = new NotificationLogProperties();
+        logProperties.setDirectory(directory);
+        NotificationLog notificationLog = new NotificationLog(logProperties, new ObjectMapper().findAndRegisterModules());
+        notificationLog.open();
+        NotificationIngestProperties ingestProperties = new NotificationIngestProperties();
+        ingestProperties.setCapacity(8);
+        ingestProperties.setBatchSize(4);
+        ingestProperties.setRejectionPolicy(RejectionPolicy.BLOCK);
+        NotificationCoalescingProperties coalescingProperties = new NotificationCoalescingProperties();
+        coalescingProperties.setEnabled(false);
+        NotificationDispatcher dispatcher = new NotificationDispatcher(ingestProperties, coalescingProperties,
+                logProperties, notificationLog, new NotificationBroadcaster(new NotificationStreamProperties(), notificationLog));
+        dispatcher.start();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<?>> producers = new ArrayList<>();
+            for (int p = 0; p < 3; p++) {
+                String producer = "p" + p;
+                producers.add(executor.submit(() -> dispatcher.dispatch(IntStream.range(0, 50)
+                        .mapToObj(i -> notification(producer + "-" + i, null))
+                        .toList())));
+            }
+            for (Future<?> producer : producers) {
+                producer.get();
+            }
+
+            assertEquals(150, dispatcher.getAccepted());
+            assertEquals(0, dispatcher.getRejected());
+            List<Notification> stored = notificationLog.read(0, notificationLog.getLastOffset());
+            assertEquals(150, stored.size());
+            for (int p = 0; p < 3; p++) {
+                String producer = "p" + p + "-";
+                assertEquals(IntStream.range(0, 50).mapToObj(i -> producer + i).toList(), stored.stream()
+                        .map(Notification::getMessage)
+                        .filter(message -> message.startsWith(producer))
+                        .toList());
+            }
+        } finally {
+            executor.shutdown();
+            dispatcher.stop();
+            notificationLog.close();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package be.pxl.services;
+
+import be.pxl.services.domain.Notification;
+import be.pxl.services.storage.NotificationLog;
+import be.pxl.services.storage.NotificationLogProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Durable append throughput and fsync latency of the notification log: every writer appends a notification and
+ * waits until it is on disk, so concurrent writers share group commits. Not part of the regular test run; start it
+ * explicitly with {@code mvn -pl notification-service test -Dtest=NotificationLogBenchmark}, optionally overriding
+ * {@code -Dbenchmark.writers} and {@code -Dbenchmark.appends} (per writer). Results depend heavily on the disk
+ * behind the temporary directory.
+ */
+@Slf4j
+public class NotificationLogBenchmark {
+    private static final int[] WRITERS = Arrays.stream(System.getProperty("benchmark.writers", "1,8,64").split(","))
+            .mapToInt(Integer::parseInt).toArray();
+    private static final int APPENDS = Integer.getInteger("benchmark.appends", 2_000);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void benchmarkDurableAppends() throws Exception {
+        NotificationLogProperties properties = new NotificationLogProperties();
+        properties.setDirectory(directory);
+        NotificationLog notificationLog = new NotificationLog(properties, new ObjectMapper().findAndRegisterModules());
+        notificationLog.open();
+        try {
+            run(notificationLog, WRITERS[0], APPENDS / 10);
+            for (int writers : WRITERS) {
+                long started = System.nanoTime();
+                long[] latencies = run(notificationLog, writers, APPENDS);
+                double seconds = (System.nanoTime() - started) / 1e9;
+                Arrays.sort(latencies);
+                log.info("{} writer(s): {} durable appends/s, fsync wait p50 {} us, p99 {} us, max {} us",
+                        writers, String.format("%.0f", latencies.length / seconds), percentile(latencies, 0.50),
+                        percentile(latencies, 0.99), latencies[latencies.length - 1]);
+            }
+            assertEquals(notificationLog.getLastOffset(), notificationLog.getDurableOffset());
+        } finally {
+            notificationLog.close();
+        }
+    }
+
+    // returns the time each append spent waiting for its fsync, in microseconds
+    private static long[] run(NotificationLog notificationLog, int writers, int appends) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<long[]>> results = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                String sender = "writer-" + w;
+                results.add(executor.submit(() -> {
+                    long[] latencies = new long[appends];
+                    start.await();
+                    for (int i = 0; i < appends; i++) {
+                        Notification stored = notificationLog.append(Notification.builder()
+                                .message("Employee " + i + " created")
+                                .sender(sender)
+                                .build());
+                        long appended = System.nanoTime();
+                        notificationLog.awaitDurable(stored.getId());
+                        latencies[i] = (System.nanoTime() - appended) / 1_000;
+                    }
+                    return latencies;
+                }));
+            }
+            start.countDown();
+            long[] all = new long[0];
+            for (Future<long[]> result : results) {
+                long[] latencies = result.get();
+                int offset = all.length;
+                all = Arrays.copyOf(all, offset + latencies.length);
+                System.arraycopy(latencies, 0, all, offset, latencies.length);
+            }
+            return all;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * percentile))];
+    }
+}
@@ -0,0 +1,180 @@
+package be.pxl.services;
+
+import be.pxl.services.domain.Notification;
+import be.pxl.services.storage.NotificationLog;
+import be.pxl.services.storage.NotificationLogProperties;
+import be.pxl.services.storage.NotificationLogUnavailableException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NotificationLogTests {
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private NotificationLog notificationLog;
+
+    private NotificationLog openLog(long segmentBytes) throws Exception {
+        NotificationLogProperties properties = new NotificationLogProperties();
+        properties.setDirectory(directory);
+        properties.setSegmentBytes(segmentBytes);
+        notificationLog = new NotificationLog(properties, objectMapper);
+        notificationLog.open();
+        return notificationLog;
+    }
+
+    private static Notification notification(String message) {
+        return Notification.builder()
+                .message(message)
+                .sender("Tom")
+                .build();
+    }
+
+    private List<Path> segmentFiles() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (notificationLog != null) {
+            notificationLog.close();
+        }
+    }
+
+    @Test
+    public void testAppendAssignsOffsetsAndReadsThemBack() throws Exception {
+        NotificationLog log = openLog(1024 * 1024);
+
+        for (int i = 1; i <= 5; i++) {
+            assertEquals(i, log.append(notification("message " + i)).getId());
+        }
+
+        List<Notification> read = log.read(2, 4);
+        assertEquals(2, read.size());
+        assertEquals(3L, read.get(0).getId());
+        assertEquals("message 4", read.get(1).getMessage());
+        assertNotNull(read.get(0).getTimestamp());
+    }
+
+    @Test
+    public void testRollsOverSegmentsAndReadsAcrossThem() throws Exception {
+        NotificationLog log = openLog(256);
+
+        for (int i = 1; i <= 20; i++) {
+            log.append(notification("message " + i));
+        }
+
+        assertTrue(segmentFiles().size() > 1);
+        List<Notification> read = log.read(0, 20);
+        assertEquals(20, read.size());
+        for (int i = 0; i < read.size(); i++) {
+            assertEquals(i + 1L, read.get(i).getId());
+        }
+    }
+
+    @Test
+    public void testRecoversAfterUncleanShutdown() throws Exception {
+        NotificationLog log = openLog(1024 * 1024);
+        for (int i = 1; i <= 3; i++) {
+            log.append(notification("message " + i));
+        }
+        log.awaitDurable(3);
+        log.close();
+        notificationLog = null;
+
+        Path segment = segmentFiles().get(0);
+        long intactSize = Files.size(segment);
+        // a record header promising more bytes than were written before the crash
+        Files.write(segment, new byte[]{0, 0, 0, 100, 1, 2, 3, 4, 5, 6}, StandardOpenOption.APPEND);
+
+        NotificationLog reopened = openLog(1024 * 1024);
+
+        assertEquals(intactSize, Files.size(segment));
+        assertEquals(3, reopened.getLastOffset());
+        assertEquals(4L, reopened.append(notification("after restart")).getId());
+        assertEquals("after restart", reopened.read(3, 4).get(0).getMessage());
+    }
+
+    @Test
+    public void testRetentionDeletesOldestSegments() throws Exception {
+        NotificationLogProperties properties = new NotificationLogProperties();
+        properties.setDirectory(directory);
+        properties.setSegmentBytes(256);
+        properties.setRetentionBytes(512);
+        properties.setRetentionAge(Duration.ofDays(1));
+        notificationLog = new NotificationLog(properties, objectMapper);
+        notificationLog.open();
+        for (int i = 1; i <= 40; i++) {
+            notificationLog.append(notification("message " + i));
+        }
+        int before = segmentFiles().size();
+
+        notificationLog.enforceRetention();
+
+        assertTrue(segmentFiles().size() < before);
+        List<Notification> remaining = notificationLog.read(0, 40);
+        assertFalse(remaining.isEmpty());
+        assertEquals(40L, remaining.get(remaining.size() - 1).getId());
+        assertTrue(remaining.get(0).getId() > 1);
+    }
+
+    @Test
+    public void testGroupCommitAcknowledgesConcurrentWriters() throws Exception {
+        NotificationLog log = openLog(1024 * 1024);
+        ExecutorService writers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                int n = i;
+                results.add(writers.submit(() -> {
+                    long id = log.append(notification("message " + n)).getId();
+                    log.awaitDurable(id);
+                    return id;
+                }));
+            }
+            for (Future<Long> result : results) {
+                assertTrue(result.get() <= log.getDurableOffset());
+            }
+        } finally {
+            writers.shutdownNow();
+        }
+        assertEquals(200, log.getDurableOffset());
+    }
+
+    @Test
+    public void testAwaitDurableGivesUpAfterTheDurableTimeout() throws Exception {
+        NotificationLogProperties properties = new NotificationLogProperties();
+        properties.setDirectory(directory);
+        properties.setDurableTimeout(Duration.ofMillis(50));
+        notificationLog = new NotificationLog(properties, objectMapper);
+        notificationLog.open();
+        notificationLog.append(notification("message"));
+
+        // offset 2 is never written, so no flush can cover it
+        assertThrows(NotificationLogUnavailableException.class, () -> notificationLog.awaitDurable(2));
+        notificationLog.awaitDurable(1);
+    }
+
+    @Test
+    public void testRejectsSegmentsLargerThanTheirIntPositionsCanAddress() {
+        assertThrows(IllegalStateException.class, () -> openLog(3L * 1024 * 1024 * 1024));
+        notificationLog = null;
+    }
+}
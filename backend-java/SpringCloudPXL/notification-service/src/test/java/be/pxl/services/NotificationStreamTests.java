@@ -0,0 +1,50 @@
+package be.pxl.services;
+
+import be.pxl.services.domain.Notification;
+import be.pxl.services.stream.NotificationRingBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NotificationStreamTests {
+
+    private static Notification notification(long id) {
+        return Notification.builder()
+                .id(id)
+                .message("message " + id)
+                .sender("Tom")
+                .build();
+    }
+
+    @Test
+    public void testReplayAfterLastEventId() {
+        NotificationRingBuffer buffer = new NotificationRingBuffer(8);
+        for (long id = 1; id <= 5; id++) {
+            buffer.add(notification(id));
+        }
+
+        List<Notification> missed = buffer.readAfter(3);
+
+        assertEquals(2, missed.size());
+        assertEquals(4L, missed.get(0).getId());
+        assertEquals(5L, missed.get(1).getId());
+        assertTrue(buffer.readAfter(5).isEmpty());
+    }
+
+    @Test
+    public void testReplayIsLimitedToRetainedNotifications() {
+        NotificationRingBuffer buffer = new NotificationRingBuffer(4);
+        for (long id = 1; id <= 10; id++) {
+            buffer.add(notification(id));
+        }
+
+        List<Notification> missed = buffer.readAfter(0);
+
+        assertEquals(4, missed.size());
+        assertEquals(7L, missed.get(0).getId());
+        assertEquals(10L, missed.get(3).getId());
+        assertEquals(10L, buffer.getLastId());
+    }
+}
@@ -1,8 +1,13 @@
 package be.pxl.services;
 
+import be.pxl.services.discovery.FastDiscoveryLoadBalancerConfiguration;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * EmployeeServiceApplication.
@@ -10,6 +15,10 @@ import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
  */
 @SpringBootApplication
 @EnableDiscoveryClient
+@LoadBalancerClients(defaultConfiguration = FastDiscoveryLoadBalancerConfiguration.class)
+@EnableFeignClients
+@EnableScheduling
+@ConfigurationPropertiesScan
 public class OrganizationServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(OrganizationServiceApplication.class, args);
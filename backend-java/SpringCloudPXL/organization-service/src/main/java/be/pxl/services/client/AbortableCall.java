@@ -0,0 +1,53 @@
+package be.pxl.services.client;
+
+import org.apache.hc.client5.http.classic.ExecChainHandler;
+import org.apache.hc.client5.http.classic.ExecRuntime;
+
+import java.io.InterruptedIOException;
+
+/**
+ * Lets a Feign call be aborted from another thread. Interrupting the calling thread does not unblock a socket
+ * read of the Apache HttpClient 5 transport, closing its connection does: the call binds the handle to its
+ * thread, the exec interceptor added by {@link FeignTransportConfig} attaches the connection leased for it, and
+ * {@link #abort()} discards that connection, so the blocked read fails at once instead of waiting for the
+ * response or the read timeout. Without the interceptor (feign-transport.http2) aborting does nothing.
+ */
+public class AbortableCall {
+    private static final ThreadLocal<AbortableCall> CURRENT = new ThreadLocal<>();
+
+    private volatile boolean aborted;
+    private volatile ExecRuntime runtime;
+
+    public void bind() {
+        CURRENT.set(this);
+    }
+
+    public void unbind() {
+        CURRENT.remove();
+        runtime = null;
+    }
+
+    public void abort() {
+        aborted = true;
+        ExecRuntime current = runtime;
+        if (current != null) {
+            current.discardEndpoint();
+        }
+    }
+
+    // runs once the connection is leased and connected, right before the request is written to it; an
+    // InterruptedIOException is not retried by the client's retry strategy
+    static ExecChainHandler interceptor() {
+        return (request, scope, chain) -> {
+            AbortableCall call = CURRENT.get();
+            if (call != null) {
+                call.runtime = scope.execRuntime;
+                if (call.aborted) {
+                    scope.execRuntime.discardEndpoint();
+                    throw new InterruptedIOException("Aborted " + request.getRequestUri());
+                }
+            }
+            return chain.proceed(request, scope);
+        };
+    }
+}
@@ -0,0 +1,20 @@
+package be.pxl.services.client;
+
+import be.pxl.services.domain.Department;
+import be.pxl.services.readmodel.ChangeFeedPage;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
+
+@FeignClient(name = "department-service", path = "/api/department")
+public interface DepartmentClient {
+
+    @GetMapping("/organization/{organizationId}")
+    List<Department> findByOrganization(@PathVariable("organizationId") Long organizationId);
+
+    @GetMapping("/events")
+    ChangeFeedPage<Department> getEvents(@RequestParam("after") long after, @RequestParam("limit") int limit);
+}
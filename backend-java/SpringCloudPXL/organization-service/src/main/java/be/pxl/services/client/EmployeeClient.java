@@ -0,0 +1,20 @@
+package be.pxl.services.client;
+
+import be.pxl.services.domain.Employee;
+import be.pxl.services.readmodel.ChangeFeedPage;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
+
+@FeignClient(name = "employee-service", path = "/api/employee")
+public interface EmployeeClient {
+
+    @GetMapping("/organization/{organizationId}")
+    List<Employee> findByOrganization(@PathVariable("organizationId") Long organizationId);
+
+    @GetMapping("/events")
+    ChangeFeedPage<Employee> getEvents(@RequestParam("after") long after, @RequestParam("limit") int limit);
+}
@@ -1,10 +1,17 @@
 package be.pxl.services.controller;
 
+import be.pxl.services.domain.dto.OrganizationRequest;
 import be.pxl.services.domain.dto.OrganizationResponse;
+import be.pxl.services.domain.dto.ReadModelStatus;
 import be.pxl.services.services.IOrganizationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/organization")
@@ -12,27 +19,70 @@ import org.springframework.web.bind.annotation.*;
 public class OrganizationController {
     private final IOrganizationService organizationService;
 
+    // answers 304 from a version lookup before the organization is loaded or serialized
+    private static ResponseEntity<OrganizationResponse> conditional(String etag, WebRequest request,
+                                                                    Supplier<OrganizationResponse> body) {
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+        OrganizationResponse organization = body.get();
+        return ResponseEntity.ok().eTag(etag).body(organization);
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public OrganizationResponse create(@RequestBody OrganizationRequest organizationRequest) {
+        return organizationService.create(organizationRequest);
+    }
+
+    @PostMapping("/bulk")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<OrganizationResponse> createAll(@RequestBody List<OrganizationRequest> organizationRequests) {
+        return organizationService.createAll(organizationRequests);
+    }
+
+    // 204 once the change is committed, 202 when it was only buffered (organization.write-behind.acknowledge=async)
+    @PutMapping("/{id}")
+    public ResponseEntity<Void> update(@PathVariable Long id, @RequestBody OrganizationRequest organizationRequest) {
+        boolean committed = organizationService.update(id, organizationRequest);
+        return committed ? ResponseEntity.noContent().build() : ResponseEntity.accepted().build();
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable Long id) {
+        boolean committed = organizationService.delete(id);
+        return committed ? ResponseEntity.noContent().build() : ResponseEntity.accepted().build();
+    }
+
     @GetMapping("/{id}")
-    @ResponseStatus(HttpStatus.OK)
-    public OrganizationResponse findById(@PathVariable Long id) {
-        return organizationService.findById(id);
+    public ResponseEntity<OrganizationResponse> findById(@PathVariable Long id, WebRequest request) {
+        return conditional(organizationService.getETag(id), request, () -> organizationService.findById(id));
     }
 
     @GetMapping("/{id}/with-departments")
-    @ResponseStatus(HttpStatus.OK)
-    public OrganizationResponse findByIdWithDepartments(@PathVariable Long id) {
-        return organizationService.findByIdWithDepartments(id);
+    public ResponseEntity<OrganizationResponse> findByIdWithDepartments(@PathVariable Long id, WebRequest request) {
+        return conditional(organizationService.getComposedETag(id), request, () -> organizationService.findByIdWithDepartments(id));
     }
 
     @GetMapping("/{id}/with-departments-and-employees")
-    @ResponseStatus(HttpStatus.OK)
-    public OrganizationResponse findByIdWithDepartmentsAndEmployees(@PathVariable Long id) {
-        return organizationService.findByIdWithDepartmentsAndEmployees(id);
+    public ResponseEntity<OrganizationResponse> findByIdWithDepartmentsAndEmployees(@PathVariable Long id, WebRequest request) {
+        return conditional(organizationService.getComposedETag(id), request, () -> organizationService.findByIdWithDepartmentsAndEmployees(id));
     }
 
     @GetMapping("/{id}/with-employees")
+    public ResponseEntity<OrganizationResponse> findByIdWithEmployees(@PathVariable Long id, WebRequest request) {
+        return conditional(organizationService.getComposedETag(id), request, () -> organizationService.findByIdWithEmployees(id));
+    }
+
+    @GetMapping("/read-model")
+    @ResponseStatus(HttpStatus.OK)
+    public ReadModelStatus getReadModelStatus() {
+        return organizationService.getReadModelStatus();
+    }
+
+    @PostMapping("/read-model/rebuild")
     @ResponseStatus(HttpStatus.OK)
-    public OrganizationResponse findByIdWithEmployees(@PathVariable Long id) {
-        return organizationService.findByIdWithEmployees(id);
+    public ReadModelStatus rebuildReadModel() {
+        return organizationService.rebuildReadModel();
     }
 }
@@ -0,0 +1,26 @@
+package be.pxl.services.domain;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * How far the read model has consumed a change feed. Stored in the same transaction as the views the
+ * events were applied to, so a restart resumes exactly where it left off.
+ */
+@Entity
+@Table(name = "change_feed_cursor")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeFeedCursor {
+    @Id
+    private String feed;
+    private String epoch;
+    private long sequence;
+}
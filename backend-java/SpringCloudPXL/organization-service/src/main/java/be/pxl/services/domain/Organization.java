@@ -5,11 +5,16 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.List;
 
 @Entity
 @Table(name = "organization")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "organization")
 @Data
 @Builder
 @NoArgsConstructor
@@ -20,6 +25,9 @@ public class Organization {
     private Long id;
     private String name;
     private String address;
+    @Version
+    @ColumnDefault("0")
+    private Long version;
     @Transient
     private List<Employee> employees;
     @Transient
@@ -0,0 +1,28 @@
+package be.pxl.services.domain;
+
+import be.pxl.services.readmodel.OrganizationDocument;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "organization_view")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrganizationView {
+    @Id
+    private Long organizationId;
+    @JdbcTypeCode(SqlTypes.JSON)
+    private OrganizationDocument document;
+    private Instant updatedAt;
+}
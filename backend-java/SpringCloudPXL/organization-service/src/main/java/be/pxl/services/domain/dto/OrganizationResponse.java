@@ -7,6 +7,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
 import java.util.List;
 
 @Data
@@ -19,4 +20,7 @@ public class OrganizationResponse {
     private String address;
     private List<Department> departments;
     private List<Employee> employees;
+    // only set for responses served from the read model
+    private Instant syncedAt;
+    private Boolean stale;
 }
@@ -0,0 +1,19 @@
+package be.pxl.services.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReadModelStatus {
+    private boolean stale;
+    private Instant syncedAt;
+    private long organizations;
+    private int failedOrganizations;
+}
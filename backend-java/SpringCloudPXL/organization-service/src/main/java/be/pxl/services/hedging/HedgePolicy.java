@@ -0,0 +1,59 @@
+package be.pxl.services.hedging;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Hedging state of one Feign client: a sliding window of recent call latencies, from which the hedge delay is
+ * derived, and a token bucket that limits the extra load. Every hedged request earns hedging.budget tokens and
+ * every hedge spends one, so hedges stay below that fraction of the requests however slow the target gets.
+ * Calls aborted as the losing side of a hedge are sampled with the time they had run, a lower bound of their
+ * latency, so that the window does not hold only the calls that were fast enough to finish.
+ */
+class HedgePolicy {
+    private final HedgingProperties properties;
+    private final long[] samples;
+    private volatile long count;
+    private volatile long percentileNanos;
+    private double tokens;
+
+    HedgePolicy(HedgingProperties properties) {
+        this.properties = properties;
+        this.samples = new long[Math.max(1, properties.getWindow())];
+        this.tokens = properties.getBudgetBurst();
+    }
+
+    synchronized void recordLatency(long nanos) {
+        samples[(int) (count++ % samples.length)] = nanos;
+        // sorting the window on every call would cost more than the calls it hedges
+        if (count % Math.max(1, samples.length / 10) == 0) {
+            long[] sorted = Arrays.copyOf(samples, (int) Math.min(count, samples.length));
+            Arrays.sort(sorted);
+            int index = (int) Math.min(sorted.length - 1, (long) (sorted.length * properties.getPercentile()));
+            percentileNanos = sorted[index];
+        }
+    }
+
+    Duration getDelay() {
+        if (count < properties.getMinSamples() || percentileNanos == 0) {
+            return properties.getInitialDelay();
+        }
+        Duration delay = Duration.ofNanos(percentileNanos);
+        if (delay.compareTo(properties.getMinDelay()) < 0) {
+            return properties.getMinDelay();
+        }
+        return delay.compareTo(properties.getMaxDelay()) > 0 ? properties.getMaxDelay() : delay;
+    }
+
+    synchronized void onRequest() {
+        tokens = Math.min(properties.getBudgetBurst(), tokens + properties.getBudget());
+    }
+
+    synchronized boolean tryAcquireHedge() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+}
@@ -0,0 +1,44 @@
+package be.pxl.services.hedging;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.loadbalancer.core.DelegatingServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * Leaves the instance that is serving the first call out of the list the load balancer picks a hedge from. With a
+ * single instance the hedge goes to that instance.
+ */
+public class HedgedInstanceFilter extends DelegatingServiceInstanceListSupplier {
+    private final HedgedRequestTracker hedgedRequestTracker;
+
+    public HedgedInstanceFilter(ServiceInstanceListSupplier delegate, HedgedRequestTracker hedgedRequestTracker) {
+        super(delegate);
+        this.hedgedRequestTracker = hedgedRequestTracker;
+    }
+
+    @Override
+    public Flux<List<ServiceInstance>> get() {
+        return getDelegate().get();
+    }
+
+    @Override
+    public Flux<List<ServiceInstance>> get(Request request) {
+        ServiceInstance first = hedgedRequestTracker.getFirstInstance(request);
+        if (first == null) {
+            return getDelegate().get(request);
+        }
+        return getDelegate().get(request).map(instances -> exclude(instances, first));
+    }
+
+    private static List<ServiceInstance> exclude(List<ServiceInstance> instances, ServiceInstance first) {
+        List<ServiceInstance> others = instances.stream()
+                .filter(instance -> !instance.getHost().equals(first.getHost())
+                        || instance.getPort() != first.getPort())
+                .toList();
+        return others.isEmpty() ? instances : others;
+    }
+}
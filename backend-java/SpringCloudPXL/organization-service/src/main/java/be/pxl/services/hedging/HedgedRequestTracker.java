@@ -0,0 +1,71 @@
+package be.pxl.services.hedging;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Remembers which instance the load balancer picked for the first call of a hedged request, so the
+ * {@link HedgedInstanceFilter} can send the hedge somewhere else. The two calls are linked by headers: the first
+ * carries X-Hedge-Id, the hedge X-Hedge-Of with the same id.
+ */
+@Component
+public class HedgedRequestTracker implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+    static final String HEDGE_ID = "X-Hedge-Id";
+    static final String HEDGE_OF = "X-Hedge-Of";
+
+    private final Map<String, AtomicReference<ServiceInstance>> firstInstances = new ConcurrentHashMap<>();
+
+    void open(String hedgeId) {
+        firstInstances.put(hedgeId, new AtomicReference<>());
+    }
+
+    void close(String hedgeId) {
+        firstInstances.remove(hedgeId);
+    }
+
+    public ServiceInstance getFirstInstance(Request<?> request) {
+        String hedgeOf = header(request, HEDGE_OF);
+        AtomicReference<ServiceInstance> first = hedgeOf == null ? null : firstInstances.get(hedgeOf);
+        return first == null ? null : first.get();
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        String hedgeId = header(request, HEDGE_ID);
+        // only while the request is open, so a first call that starts after its hedge already won leaves nothing behind
+        AtomicReference<ServiceInstance> first = hedgeId == null ? null : firstInstances.get(hedgeId);
+        if (first != null && lbResponse.hasServer()) {
+            first.set(lbResponse.getServer());
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+    }
+
+    private static String header(Request<?> request, String name) {
+        if (request != null && request.getContext() instanceof RequestDataContext context
+                && context.getClientRequest() != null) {
+            return context.getClientRequest().getHeaders().getFirst(name);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,74 @@
+package be.pxl.services.hedging;
+
+import feign.Capability;
+import feign.Client;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Wraps the transport of every Feign client in a {@link HedgingClient}. Picked up by Spring Cloud OpenFeign as a
+ * Capability bean; clients that are not listed in hedging.clients call their transport directly.
+ */
+@Component
+@RequiredArgsConstructor
+public class HedgingCapability implements Capability {
+    private final HedgingProperties properties;
+    private final HedgedRequestTracker hedgedRequestTracker;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, HedgePolicy> policies = new ConcurrentHashMap<>();
+    private final AtomicInteger threads = new AtomicInteger();
+    // each hedged request occupies up to two threads; the number of request threads already bounds it
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "feign-hedging-" + threads.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Override
+    public Client enrich(Client client) {
+        return new HedgingClient(client, this);
+    }
+
+    boolean isHedged(String method, String client) {
+        return properties.isEnabled() && "GET".equals(method) && properties.getClients().contains(client);
+    }
+
+    HedgePolicy getPolicy(String client) {
+        return policies.computeIfAbsent(client, name -> {
+            HedgePolicy policy = new HedgePolicy(properties);
+            TimeGauge.builder("hedging.delay", policy, TimeUnit.NANOSECONDS, p -> p.getDelay().toNanos())
+                    .description("Delay after which a hedge is sent")
+                    .tag("client", name)
+                    .register(meterRegistry);
+            return policy;
+        });
+    }
+
+    Counter counter(String name, String client) {
+        return meterRegistry.counter(name, "client", client);
+    }
+
+    HedgedRequestTracker getTracker() {
+        return hedgedRequestTracker;
+    }
+
+    ExecutorService getExecutor() {
+        return executor;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
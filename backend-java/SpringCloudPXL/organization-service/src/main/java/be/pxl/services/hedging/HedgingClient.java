@@ -0,0 +1,163 @@
+package be.pxl.services.hedging;
+
+import be.pxl.services.client.AbortableCall;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends a hedged GET a second time when the first call has not answered within the client's hedge delay (see
+ * {@link HedgePolicy}). The load balancer picks the instance for the hedge, leaving out the one serving the
+ * first call. The first response wins; the other call is aborted (see {@link AbortableCall}), which closes its
+ * connection, and its response, should it still arrive, is closed. Hedging is not a retry: a first call that
+ * fails before the delay fails the request, and a request only fails after a hedge when both calls did.
+ * <p>
+ * Every call's latency feeds the hedge delay, an aborted call with the time it had run until then. That is a
+ * lower bound of its real latency, so the percentile still leans a little low when many calls lose, but no
+ * longer leaves out exactly the slow calls that made hedging worthwhile.
+ */
+class HedgingClient implements Client {
+    private final Client delegate;
+    private final HedgingCapability hedging;
+
+    HedgingClient(Client delegate, HedgingCapability hedging) {
+        this.delegate = delegate;
+        this.hedging = hedging;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        String client = request.requestTemplate() == null || request.requestTemplate().feignTarget() == null
+                ? null : request.requestTemplate().feignTarget().name();
+        if (client == null || !hedging.isHedged(request.httpMethod().name(), client)) {
+            return delegate.execute(request, options);
+        }
+        HedgePolicy policy = hedging.getPolicy(client);
+        policy.onRequest();
+        hedging.counter("hedging.requests", client).increment();
+        String hedgeId = UUID.randomUUID().toString();
+        hedging.getTracker().open(hedgeId);
+        Attempt first = null;
+        Attempt hedge = null;
+        try {
+            first = send(withHeader(request, HedgedRequestTracker.HEDGE_ID, hedgeId), options, policy);
+            try {
+                return first.result.get(policy.getDelay().toNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                // slower than the percentile: hedge below
+            }
+            if (!policy.tryAcquireHedge()) {
+                hedging.counter("hedging.budget.exhausted", client).increment();
+                return first.result.get();
+            }
+            hedging.counter("hedging.fired", client).increment();
+            hedge = send(withHeader(request, HedgedRequestTracker.HEDGE_OF, hedgeId), options, policy);
+            CompletableFuture<Response> winner = firstResponse(first, hedge);
+            Response response = winner.get();
+            if (hedge.result.isDone() && !hedge.result.isCompletedExceptionally() && hedge.result.join() == response) {
+                hedging.counter("hedging.won", client).increment();
+            }
+            return response;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + request.url());
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } finally {
+            hedging.getTracker().close(hedgeId);
+            cancel(first);
+            cancel(hedge);
+        }
+    }
+
+    private Attempt send(Request request, Request.Options options, HedgePolicy policy) {
+        CompletableFuture<Response> result = new CompletableFuture<>();
+        AbortableCall call = new AbortableCall();
+        long start = System.nanoTime();
+        Future<?> task = hedging.getExecutor().submit(() -> {
+            call.bind();
+            try {
+                Response response = delegate.execute(request, options);
+                if (result.complete(response)) {
+                    policy.recordLatency(System.nanoTime() - start);
+                } else {
+                    // a response that arrives after the call was cancelled still holds a pooled connection
+                    response.close();
+                }
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                call.unbind();
+            }
+        });
+        return new Attempt(result, task, call, policy, start);
+    }
+
+    private static CompletableFuture<Response> firstResponse(Attempt first, Attempt hedge) {
+        CompletableFuture<Response> winner = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (Attempt attempt : List.of(first, hedge)) {
+            attempt.result.whenComplete((response, error) -> {
+                if (error == null) {
+                    if (!winner.complete(response)) {
+                        response.close();
+                    }
+                } else if (failures.incrementAndGet() == 2) {
+                    winner.completeExceptionally(error);
+                }
+            });
+        }
+        return winner;
+    }
+
+    // the interrupt only stops a call that has not started yet or runs on the JDK HTTP/2 client
+    private static void cancel(Attempt attempt) {
+        if (attempt != null && attempt.result.cancel(false)) {
+            attempt.policy.recordLatency(System.nanoTime() - attempt.start);
+            attempt.call.abort();
+            attempt.task.cancel(true);
+        }
+    }
+
+    private static Request withHeader(Request request, String name, String value) {
+        Map<String, Collection<String>> headers = new LinkedHashMap<>(request.headers());
+        headers.put(name, List.of(value));
+        return Request.create(request.httpMethod(), request.url(), headers, request.body(), request.charset(),
+                request.requestTemplate());
+    }
+
+    private static IOException unwrap(Throwable cause) {
+        if (cause instanceof IOException e) {
+            return e;
+        }
+        if (cause instanceof UncheckedIOException e) {
+            return e.getCause();
+        }
+        if (cause instanceof RuntimeException e) {
+            throw e;
+        }
+        if (cause instanceof Error e) {
+            throw e;
+        }
+        return new IOException(cause);
+    }
+
+    private record Attempt(CompletableFuture<Response> result, Future<?> task, AbortableCall call, HedgePolicy policy,
+                           long start) {
+    }
+}
@@ -0,0 +1,16 @@
+package be.pxl.services.hedging;
+
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplierBuilder.DelegateCreator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class HedgingConfig {
+
+    // added by FastDiscoveryLoadBalancerConfiguration after the failed-instance filter, so a hedge stays away from
+    // the instance serving the first call
+    @Bean
+    public DelegateCreator hedgedInstanceFilter(HedgedRequestTracker hedgedRequestTracker) {
+        return (context, delegate) -> new HedgedInstanceFilter(delegate, hedgedRequestTracker);
+    }
+}
@@ -0,0 +1,27 @@
+package be.pxl.services.hedging;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+@Data
+@ConfigurationProperties(prefix = "hedging")
+public class HedgingProperties {
+    private boolean enabled = false;
+    // Feign client names (service ids) whose GETs are hedged
+    private Set<String> clients = new HashSet<>();
+    // the hedge is sent once the first call is slower than this percentile of recent calls
+    private double percentile = 0.95;
+    // delay used until min-samples calls have been seen
+    private Duration initialDelay = Duration.ofMillis(50);
+    private Duration minDelay = Duration.ofMillis(5);
+    private Duration maxDelay = Duration.ofSeconds(1);
+    private int window = 1000;
+    private int minSamples = 100;
+    // hedges allowed per hedged request on average, and how many may be sent in a burst
+    private double budget = 0.1;
+    private int budgetBurst = 10;
+}
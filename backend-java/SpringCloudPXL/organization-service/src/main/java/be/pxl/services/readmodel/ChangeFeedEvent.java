@@ -0,0 +1,21 @@
+package be.pxl.services.readmodel;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeFeedEvent<T> {
+    private long sequence;
+    private ChangeType type;
+    private Long entityId;
+    private Long organizationId;
+    private Instant timestamp;
+    private T payload;
+}
@@ -0,0 +1,22 @@
+package be.pxl.services.readmodel;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A page of the employee-service or department-service change event log, see their {@code ChangeEventPage}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeFeedPage<T> {
+    private String epoch;
+    private long firstSequence;
+    private long lastSequence;
+    private List<ChangeFeedEvent<T>> events;
+}
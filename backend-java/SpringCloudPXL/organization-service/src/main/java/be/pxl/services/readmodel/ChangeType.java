@@ -0,0 +1,7 @@
+package be.pxl.services.readmodel;
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,28 @@
+package be.pxl.services.readmodel;
+
+import be.pxl.services.domain.Department;
+import be.pxl.services.domain.Employee;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The fully composed organization as stored in the read model: every department with its employees nested,
+ * plus the flat list of all employees of the organization.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrganizationDocument {
+    private String name;
+    private String address;
+    @Builder.Default
+    private List<Department> departments = new ArrayList<>();
+    @Builder.Default
+    private List<Employee> employees = new ArrayList<>();
+}
@@ -0,0 +1,141 @@
+package be.pxl.services.readmodel;
+
+import be.pxl.services.domain.ChangeFeedCursor;
+import be.pxl.services.domain.Department;
+import be.pxl.services.domain.Employee;
+import be.pxl.services.domain.Organization;
+import be.pxl.services.domain.OrganizationView;
+import be.pxl.services.repository.ChangeFeedCursorRepository;
+import be.pxl.services.repository.OrganizationRepository;
+import be.pxl.services.repository.OrganizationViewRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Applies change events to the stored organization documents. Every event is an idempotent upsert or removal
+ * by id, so replaying events that are already reflected in a view is harmless. Events of organizations that do
+ * not exist (any more) are skipped.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrganizationViewProjector {
+    private final OrganizationViewRepository organizationViewRepository;
+    private final OrganizationRepository organizationRepository;
+    private final ChangeFeedCursorRepository changeFeedCursorRepository;
+
+    @Transactional
+    public void applyDepartmentEvents(List<ChangeFeedEvent<Department>> events, ChangeFeedCursor cursor) {
+        Map<Long, OrganizationView> views = new HashMap<>();
+        for (ChangeFeedEvent<Department> event : events) {
+            if (event.getOrganizationId() == null) {
+                continue;
+            }
+            OrganizationView view = load(views, event.getOrganizationId());
+            if (view == null) {
+                continue;
+            }
+            OrganizationDocument document = view.getDocument();
+            document.getDepartments().removeIf(department -> Objects.equals(department.getId(), event.getEntityId()));
+            if (event.getType() != ChangeType.DELETED && event.getPayload() != null) {
+                Department payload = event.getPayload();
+                document.getDepartments().add(new Department(payload.getId(), payload.getOrganizationId(),
+                        payload.getName(), employeesOf(document, payload.getId())));
+                document.getDepartments().sort(Comparator.comparing(Department::getId));
+            }
+        }
+        save(views.values());
+        changeFeedCursorRepository.save(cursor);
+    }
+
+    @Transactional
+    public void applyEmployeeEvents(List<ChangeFeedEvent<Employee>> events, ChangeFeedCursor cursor) {
+        Map<Long, OrganizationView> views = new HashMap<>();
+        for (ChangeFeedEvent<Employee> event : events) {
+            if (event.getOrganizationId() == null) {
+                continue;
+            }
+            OrganizationView view = load(views, event.getOrganizationId());
+            if (view == null) {
+                continue;
+            }
+            OrganizationDocument document = view.getDocument();
+            document.getEmployees().removeIf(employee -> Objects.equals(employee.getId(), event.getEntityId()));
+            for (Department department : document.getDepartments()) {
+                department.getEmployees().removeIf(employee -> Objects.equals(employee.getId(), event.getEntityId()));
+            }
+            if (event.getType() != ChangeType.DELETED && event.getPayload() != null) {
+                Employee employee = event.getPayload();
+                document.getEmployees().add(employee);
+                document.getEmployees().sort(Comparator.comparing(Employee::getId));
+                document.getDepartments().stream()
+                        .filter(department -> Objects.equals(department.getId(), employee.getDepartmentId()))
+                        .forEach(department -> department.setEmployees(employeesOf(document, department.getId())));
+            }
+        }
+        save(views.values());
+        changeFeedCursorRepository.save(cursor);
+    }
+
+    @Transactional
+    public void replace(Organization organization, List<Department> departments, List<Employee> employees) {
+        OrganizationDocument document = OrganizationDocument.builder()
+                .name(organization.getName())
+                .address(organization.getAddress())
+                .employees(employees.stream()
+                        .sorted(Comparator.comparing(Employee::getId))
+                        .collect(Collectors.toCollection(ArrayList::new)))
+                .build();
+        for (Department department : departments) {
+            document.getDepartments().add(new Department(department.getId(), organization.getId(),
+                    department.getName(), employeesOf(document, department.getId())));
+        }
+        document.getDepartments().sort(Comparator.comparing(Department::getId));
+        organizationViewRepository.save(OrganizationView.builder()
+                .organizationId(organization.getId())
+                .document(document)
+                .updatedAt(Instant.now())
+                .build());
+    }
+
+    @Transactional
+    public void saveCursors(List<ChangeFeedCursor> cursors) {
+        changeFeedCursorRepository.saveAll(cursors);
+    }
+
+    private OrganizationView load(Map<Long, OrganizationView> views, Long organizationId) {
+        return views.computeIfAbsent(organizationId, id -> organizationViewRepository.findById(id)
+                .or(() -> organizationRepository.findById(id)
+                        .map(organization -> OrganizationView.builder()
+                                .organizationId(id)
+                                .document(OrganizationDocument.builder()
+                                        .name(organization.getName())
+                                        .address(organization.getAddress())
+                                        .build())
+                                .build()))
+                .orElse(null));
+    }
+
+    private void save(Iterable<OrganizationView> views) {
+        Instant now = Instant.now();
+        for (OrganizationView view : views) {
+            view.setUpdatedAt(now);
+            organizationViewRepository.save(view);
+        }
+    }
+
+    private static List<Employee> employeesOf(OrganizationDocument document, Long departmentId) {
+        return document.getEmployees().stream()
+                .filter(employee -> Objects.equals(employee.getDepartmentId(), departmentId))
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+}
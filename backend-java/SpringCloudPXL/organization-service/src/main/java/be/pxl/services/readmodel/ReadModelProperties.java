@@ -0,0 +1,18 @@
+package be.pxl.services.readmodel;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "organization.read-model")
+public class ReadModelProperties {
+    private boolean enabled = true;
+    private int pageSize = 500;
+    // the view is reported stale when a feed has not been fully consumed for longer than this
+    private Duration maxLag = Duration.ofSeconds(30);
+    // organizations whose rebuild failed are retried on their own, doubling the delay up to the maximum
+    private Duration retryBackoff = Duration.ofSeconds(1);
+    private Duration maxRetryBackoff = Duration.ofMinutes(5);
+}
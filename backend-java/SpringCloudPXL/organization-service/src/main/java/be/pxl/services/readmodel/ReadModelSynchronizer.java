@@ -0,0 +1,206 @@
+package be.pxl.services.readmodel;
+
+import be.pxl.services.client.DepartmentClient;
+import be.pxl.services.client.EmployeeClient;
+import be.pxl.services.domain.ChangeFeedCursor;
+import be.pxl.services.domain.Department;
+import be.pxl.services.domain.Employee;
+import be.pxl.services.domain.Organization;
+import be.pxl.services.domain.dto.ReadModelStatus;
+import be.pxl.services.repository.ChangeFeedCursorRepository;
+import be.pxl.services.repository.OrganizationRepository;
+import be.pxl.services.repository.OrganizationViewRepository;
+import be.pxl.services.rpc.DepartmentRpcClient;
+import be.pxl.services.rpc.EmployeeRpcClient;
+import be.pxl.services.rpc.RpcClientProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+/**
+ * Keeps the organization read model up to date by polling the department and employee change feeds. When a
+ * feed cannot be followed incrementally (first start, events evicted before they were read, or the producing
+ * service restarted with a new log epoch) every view is rebuilt from the services' current state. Organizations
+ * whose rebuild fails do not hold the feeds back: the cursors are saved anyway and only those organizations are
+ * rebuilt again, with exponential backoff, while the feeds are followed as usual.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReadModelSynchronizer {
+    static final String DEPARTMENT_FEED = "department";
+    static final String EMPLOYEE_FEED = "employee";
+
+    private final ReadModelProperties properties;
+    private final DepartmentClient departmentClient;
+    private final EmployeeClient employeeClient;
+    private final RpcClientProperties rpcClientProperties;
+    private final DepartmentRpcClient departmentRpcClient;
+    private final EmployeeRpcClient employeeRpcClient;
+    private final OrganizationRepository organizationRepository;
+    private final OrganizationViewRepository organizationViewRepository;
+    private final ChangeFeedCursorRepository changeFeedCursorRepository;
+    private final OrganizationViewProjector projector;
+    private final Map<String, Instant> caughtUpAt = new ConcurrentHashMap<>();
+    private final Map<Long, PendingRebuild> pendingRebuilds = new ConcurrentHashMap<>();
+    private volatile boolean resyncRequired;
+    private volatile boolean failing;
+
+    @Scheduled(fixedDelayString = "${organization.read-model.poll-interval:1000}")
+    public void poll() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            synchronized (this) {
+                boolean inSync = !resyncRequired
+                        && consume(DEPARTMENT_FEED, departmentClient::getEvents, projector::applyDepartmentEvents)
+                        && consume(EMPLOYEE_FEED, employeeClient::getEvents, projector::applyEmployeeEvents);
+                if (!inSync) {
+                    resyncRequired = true;
+                    rebuild();
+                } else {
+                    retryPendingRebuilds();
+                }
+            }
+            if (failing) {
+                log.info("Organization read model is following the change feeds again");
+                failing = false;
+            }
+        } catch (RuntimeException e) {
+            if (!failing) {
+                log.warn("Organization read model cannot follow the change feeds: {}", e.getMessage());
+                failing = true;
+            }
+        }
+    }
+
+    public synchronized ReadModelStatus rebuild() {
+        // remember the feed positions first; events written during the rebuild are replayed on top of it
+        ChangeFeedPage<Department> departmentHead = departmentClient.getEvents(Long.MAX_VALUE, 0);
+        ChangeFeedPage<Employee> employeeHead = employeeClient.getEvents(Long.MAX_VALUE, 0);
+        pendingRebuilds.clear();
+        for (Organization organization : organizationRepository.findAll()) {
+            replace(organization);
+        }
+        projector.saveCursors(List.of(
+                cursor(DEPARTMENT_FEED, departmentHead), cursor(EMPLOYEE_FEED, employeeHead)));
+        resyncRequired = false;
+        return getStatus();
+    }
+
+    // runs right after the feeds were consumed, so later events are applied on top of the fresh snapshot
+    private void retryPendingRebuilds() {
+        Instant now = Instant.now();
+        for (Map.Entry<Long, PendingRebuild> pending : pendingRebuilds.entrySet()) {
+            if (pending.getValue().nextAttempt().isAfter(now)) {
+                continue;
+            }
+            organizationRepository.findById(pending.getKey()).ifPresentOrElse(this::replace,
+                    () -> pendingRebuilds.remove(pending.getKey()));
+        }
+    }
+
+    private void replace(Organization organization) {
+        try {
+            projector.replace(organization, findDepartments(organization.getId()), findEmployees(organization.getId()));
+            pendingRebuilds.remove(organization.getId());
+        } catch (RuntimeException e) {
+            PendingRebuild previous = pendingRebuilds.get(organization.getId());
+            int attempts = previous == null ? 1 : previous.attempts() + 1;
+            Duration backoff = properties.getRetryBackoff().multipliedBy(1L << Math.min(attempts - 1, 16));
+            if (backoff.compareTo(properties.getMaxRetryBackoff()) > 0) {
+                backoff = properties.getMaxRetryBackoff();
+            }
+            pendingRebuilds.put(organization.getId(), new PendingRebuild(attempts, Instant.now().plus(backoff)));
+            log.warn("Could not rebuild the read model of organization {} (attempt {}), retrying in {}: {}",
+                    organization.getId(), attempts, backoff, e.getMessage());
+        }
+    }
+
+    // the gRPC interface saves the JSON encoding and decoding of large organizations
+    private List<Department> findDepartments(Long organizationId) {
+        return rpcClientProperties.isEnabled() ? departmentRpcClient.findByOrganization(organizationId)
+                : departmentClient.findByOrganization(organizationId);
+    }
+
+    private List<Employee> findEmployees(Long organizationId) {
+        return rpcClientProperties.isEnabled() ? employeeRpcClient.findByOrganization(organizationId)
+                : employeeClient.findByOrganization(organizationId);
+    }
+
+    public Instant getSyncedAt() {
+        Instant departments = caughtUpAt.get(DEPARTMENT_FEED);
+        Instant employees = caughtUpAt.get(EMPLOYEE_FEED);
+        if (departments == null || employees == null) {
+            return null;
+        }
+        return departments.isBefore(employees) ? departments : employees;
+    }
+
+    public boolean isStale() {
+        Instant syncedAt = getSyncedAt();
+        return resyncRequired || syncedAt == null || syncedAt.plus(properties.getMaxLag()).isBefore(Instant.now());
+    }
+
+    public boolean isStale(Long organizationId) {
+        return isStale() || pendingRebuilds.containsKey(organizationId);
+    }
+
+    public ReadModelStatus getStatus() {
+        return ReadModelStatus.builder()
+                .stale(isStale())
+                .syncedAt(getSyncedAt())
+                .organizations(organizationViewRepository.count())
+                .failedOrganizations(pendingRebuilds.size())
+                .build();
+    }
+
+    /**
+     * Applies the feed page by page until it is exhausted. Returns false when the feed cannot be continued from
+     * the stored cursor and the read model has to be rebuilt.
+     */
+    private <T> boolean consume(String feed, BiFunction<Long, Integer, ChangeFeedPage<T>> source,
+                                BiConsumer<List<ChangeFeedEvent<T>>, ChangeFeedCursor> sink) {
+        ChangeFeedCursor cursor = changeFeedCursorRepository.findById(feed).orElse(null);
+        if (cursor == null) {
+            return false;
+        }
+        while (true) {
+            ChangeFeedPage<T> page = source.apply(cursor.getSequence(), properties.getPageSize());
+            if (!Objects.equals(page.getEpoch(), cursor.getEpoch())
+                    || page.getFirstSequence() > cursor.getSequence() + 1) {
+                log.warn("Gap in the {} change feed after sequence {}, rebuilding the read model", feed,
+                        cursor.getSequence());
+                return false;
+            }
+            if (page.getEvents().isEmpty()) {
+                caughtUpAt.put(feed, Instant.now());
+                return true;
+            }
+            cursor.setSequence(page.getEvents().get(page.getEvents().size() - 1).getSequence());
+            sink.accept(page.getEvents(), cursor);
+        }
+    }
+
+    private static ChangeFeedCursor cursor(String feed, ChangeFeedPage<?> head) {
+        return ChangeFeedCursor.builder()
+                .feed(feed)
+                .epoch(head.getEpoch())
+                .sequence(head.getLastSequence())
+                .build();
+    }
+
+    private record PendingRebuild(int attempts, Instant nextAttempt) {
+    }
+}
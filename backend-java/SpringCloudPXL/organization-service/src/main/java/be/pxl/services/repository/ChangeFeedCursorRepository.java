@@ -0,0 +1,7 @@
+package be.pxl.services.repository;
+
+import be.pxl.services.domain.ChangeFeedCursor;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ChangeFeedCursorRepository extends JpaRepository<ChangeFeedCursor, String> {
+}
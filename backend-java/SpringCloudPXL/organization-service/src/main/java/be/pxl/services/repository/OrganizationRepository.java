@@ -1,7 +1,18 @@
 package be.pxl.services.repository;
 
 import be.pxl.services.domain.Organization;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Optional;
+
+// OrganizationWriteBuffer writes through JDBC and evicts these cached results itself
 public interface OrganizationRepository extends JpaRepository<Organization, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT o.version FROM Organization o WHERE o.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
 }
@@ -0,0 +1,14 @@
+package be.pxl.services.repository;
+
+import be.pxl.services.domain.OrganizationView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface OrganizationViewRepository extends JpaRepository<OrganizationView, Long> {
+    @Query("SELECT v.updatedAt FROM OrganizationView v WHERE v.organizationId = :organizationId")
+    Optional<Instant> findUpdatedAtById(@Param("organizationId") Long organizationId);
+}
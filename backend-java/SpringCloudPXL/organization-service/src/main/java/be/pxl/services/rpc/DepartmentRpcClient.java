@@ -0,0 +1,34 @@
+package be.pxl.services.rpc;
+
+import be.pxl.services.deadline.RequestDeadline;
+import be.pxl.services.domain.Department;
+import be.pxl.services.rpc.proto.DepartmentRpcGrpc;
+import be.pxl.services.rpc.proto.OrganizationDepartmentsQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@RequiredArgsConstructor
+public class DepartmentRpcClient {
+    private final RpcChannels rpcChannels;
+    private final RpcClientProperties properties;
+
+    public List<Department> findByOrganization(Long organizationId) {
+        List<Department> departments = new ArrayList<>();
+        DepartmentRpcGrpc.newBlockingStub(rpcChannels.forService("department-service"))
+                .withDeadlineAfter(RequestDeadline.shorten(properties.getDeadline()).toNanos(), TimeUnit.NANOSECONDS)
+                .streamByOrganization(OrganizationDepartmentsQuery.newBuilder()
+                        .setOrganizationId(organizationId)
+                        .build())
+                .forEachRemaining(batch -> batch.getDepartmentsList().forEach(message -> departments.add(new Department(
+                        message.getId(),
+                        message.hasOrganizationId() ? message.getOrganizationId() : null,
+                        message.hasName() ? message.getName() : null,
+                        null))));
+        return departments;
+    }
+}
@@ -0,0 +1,51 @@
+package be.pxl.services.rpc;
+
+import be.pxl.services.deadline.RequestDeadline;
+import be.pxl.services.domain.Employee;
+import be.pxl.services.rpc.proto.DepartmentEmployeesQuery;
+import be.pxl.services.rpc.proto.EmployeeBatch;
+import be.pxl.services.rpc.proto.EmployeeRpcGrpc;
+import be.pxl.services.rpc.proto.OrganizationEmployeesQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@RequiredArgsConstructor
+public class EmployeeRpcClient {
+    private final RpcChannels rpcChannels;
+    private final RpcClientProperties properties;
+
+    public List<Employee> findByOrganization(Long organizationId) {
+        return collect(stub().streamByOrganization(OrganizationEmployeesQuery.newBuilder()
+                .setOrganizationId(organizationId)
+                .build()));
+    }
+
+    public List<Employee> findByDepartments(List<Long> departmentIds) {
+        return collect(stub().streamByDepartments(DepartmentEmployeesQuery.newBuilder()
+                .addAllDepartmentIds(departmentIds)
+                .build()));
+    }
+
+    private EmployeeRpcGrpc.EmployeeRpcBlockingStub stub() {
+        return EmployeeRpcGrpc.newBlockingStub(rpcChannels.forService("employee-service"))
+                .withDeadlineAfter(RequestDeadline.shorten(properties.getDeadline()).toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private static List<Employee> collect(Iterator<EmployeeBatch> batches) {
+        List<Employee> employees = new ArrayList<>();
+        batches.forEachRemaining(batch -> batch.getEmployeesList().forEach(message -> employees.add(new Employee(
+                message.getId(),
+                message.hasOrganizationId() ? message.getOrganizationId() : null,
+                message.hasDepartmentId() ? message.getDepartmentId() : null,
+                message.hasName() ? message.getName() : null,
+                message.getAge(),
+                message.hasPosition() ? message.getPosition() : null))));
+        return employees;
+    }
+}
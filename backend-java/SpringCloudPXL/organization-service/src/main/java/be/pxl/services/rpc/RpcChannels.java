@@ -0,0 +1,83 @@
+package be.pxl.services.rpc;
+
+import io.grpc.ManagedChannel;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * gRPC channels to the other services. The load balancer picks the instance, as for the Feign clients, and the
+ * instance's grpc-port metadata tells where its gRPC server listens. One channel per instance is kept and reused
+ * until the registry stops listing the instance.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RpcChannels {
+    static final String GRPC_PORT = "grpc-port";
+
+    private final LoadBalancerClient loadBalancerClient;
+    private final DiscoveryClient discoveryClient;
+    // service id -> host:port -> channel
+    private final Map<String, Map<String, ManagedChannel>> channels = new ConcurrentHashMap<>();
+
+    public ManagedChannel forService(String serviceId) {
+        ServiceInstance instance = loadBalancerClient.choose(serviceId);
+        if (instance == null) {
+            throw new RuntimeException("No instance of " + serviceId + " available");
+        }
+        String port = instance.getMetadata().get(GRPC_PORT);
+        if (port == null) {
+            throw new RuntimeException(serviceId + " does not advertise a gRPC port");
+        }
+        return channels.computeIfAbsent(serviceId, id -> new ConcurrentHashMap<>())
+                .computeIfAbsent(target(instance.getHost(), port), target ->
+                        NettyChannelBuilder.forAddress(instance.getHost(), Integer.parseInt(port))
+                                .usePlaintext()
+                                .build());
+    }
+
+    /**
+     * Closes the channels to instances the registry no longer lists, e.g. after a redeploy gave every instance a
+     * new address. Calls still running on such a channel are allowed to finish.
+     */
+    @Scheduled(fixedDelayString = "${rpc.client.channel-cleanup-interval:60000}")
+    public void closeDepartedChannels() {
+        channels.forEach((serviceId, targets) -> {
+            Set<String> listed = discoveryClient.getInstances(serviceId).stream()
+                    .map(instance -> {
+                        String port = instance.getMetadata().get(GRPC_PORT);
+                        return port == null ? null : target(instance.getHost(), port);
+                    })
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+            targets.forEach((target, channel) -> {
+                if (!listed.contains(target) && targets.remove(target, channel)) {
+                    channel.shutdown();
+                    log.info("Closed the gRPC channel to {} at {}: no longer registered", serviceId, target);
+                }
+            });
+        });
+    }
+
+    private static String target(String host, String port) {
+        return host + ":" + port;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        channels.values().forEach(targets -> targets.values().forEach(ManagedChannel::shutdownNow));
+    }
+}
@@ -0,0 +1,14 @@
+package be.pxl.services.rpc;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "rpc.client")
+public class RpcClientProperties {
+    // read model rebuilds fetch departments and employees over gRPC instead of JSON/HTTP
+    private boolean enabled = false;
+    private Duration deadline = Duration.ofSeconds(10);
+}
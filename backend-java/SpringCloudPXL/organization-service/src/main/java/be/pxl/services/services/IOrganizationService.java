@@ -1,8 +1,21 @@
 package be.pxl.services.services;
 
+import be.pxl.services.domain.dto.OrganizationRequest;
 import be.pxl.services.domain.dto.OrganizationResponse;
+import be.pxl.services.domain.dto.ReadModelStatus;
+
+import java.util.List;
 
 public interface IOrganizationService {
+    OrganizationResponse create(OrganizationRequest organizationRequest);
+
+    List<OrganizationResponse> createAll(List<OrganizationRequest> organizationRequests);
+
+    // both return false when the change was only buffered and has not been committed yet
+    boolean update(Long id, OrganizationRequest organizationRequest);
+
+    boolean delete(Long id);
+
     OrganizationResponse findById(Long id);
 
     OrganizationResponse findByIdWithDepartments(Long id);
@@ -10,4 +23,12 @@ public interface IOrganizationService {
     OrganizationResponse findByIdWithDepartmentsAndEmployees(Long id);
 
     OrganizationResponse findByIdWithEmployees(Long id);
+
+    String getETag(Long id);
+
+    String getComposedETag(Long id);
+
+    ReadModelStatus getReadModelStatus();
+
+    ReadModelStatus rebuildReadModel();
 }
@@ -1,15 +1,39 @@
 package be.pxl.services.services;
 
+import be.pxl.services.domain.Department;
 import be.pxl.services.domain.Organization;
+import be.pxl.services.domain.OrganizationView;
+import be.pxl.services.domain.dto.OrganizationRequest;
 import be.pxl.services.domain.dto.OrganizationResponse;
+import be.pxl.services.domain.dto.ReadModelStatus;
+import be.pxl.services.readmodel.OrganizationDocument;
+import be.pxl.services.readmodel.ReadModelSynchronizer;
 import be.pxl.services.repository.OrganizationRepository;
+import be.pxl.services.repository.OrganizationViewRepository;
+import be.pxl.services.writebehind.AcknowledgeMode;
+import be.pxl.services.writebehind.OrganizationWriteBuffer;
+import be.pxl.services.writebehind.WriteBehindProperties;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class OrganizationService implements IOrganizationService {
     private final OrganizationRepository organizationRepository;
+    private final OrganizationViewRepository organizationViewRepository;
+    private final ReadModelSynchronizer readModelSynchronizer;
+    private final OrganizationWriteBuffer organizationWriteBuffer;
+    private final WriteBehindProperties writeBehindProperties;
+    private final TransactionTemplate transactionTemplate;
 
     private Organization getOrganizationOrThrow(Long id) {
         return organizationRepository.findById(id)
@@ -26,6 +50,114 @@ public class OrganizationService implements IOrganizationService {
                 .build();
     }
 
+    private OrganizationResponse mapToOrganizationResponse(Long id, OrganizationDocument document,
+                                                           boolean includeDepartments, boolean includeEmployees) {
+        return OrganizationResponse.builder()
+                .id(id)
+                .name(document.getName())
+                .address(document.getAddress())
+                .departments(!includeDepartments ? null : includeEmployees ? document.getDepartments()
+                        : document.getDepartments().stream()
+                        .map(department -> new Department(department.getId(), department.getOrganizationId(),
+                                department.getName(), null))
+                        .collect(Collectors.toList()))
+                .employees(includeEmployees ? document.getEmployees() : null)
+                .syncedAt(readModelSynchronizer.getSyncedAt())
+                .stale(readModelSynchronizer.isStale(id))
+                .build();
+    }
+
+    // a single primary key read of the read model; organizations without a view have no departments or employees
+    private OrganizationResponse findComposed(Long id, boolean includeDepartments, boolean includeEmployees) {
+        return organizationViewRepository.findById(id)
+                .map(OrganizationView::getDocument)
+                .or(() -> organizationRepository.findById(id)
+                        .map(org -> OrganizationDocument.builder()
+                                .name(org.getName())
+                                .address(org.getAddress())
+                                .build()))
+                .map(document -> mapToOrganizationResponse(id, document, includeDepartments, includeEmployees))
+                .orElseThrow(() -> new RuntimeException("Organization not found"));
+    }
+
+    // synchronously acknowledged writes learn from their batch that the organization is gone, asynchronous
+    // ones are answered before that and need a lookup up front to still report unknown organizations
+    private void checkExistsBeforeBuffering(Long id) {
+        if (writeBehindProperties.getAcknowledge() == AcknowledgeMode.ASYNC && !organizationRepository.existsById(id)) {
+            throw new RuntimeException("Organization not found");
+        }
+    }
+
+    private boolean acknowledge(CompletableFuture<Void> write) {
+        if (writeBehindProperties.getAcknowledge() == AcknowledgeMode.ASYNC) {
+            return false;
+        }
+        try {
+            write.join();
+            return true;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public OrganizationResponse create(OrganizationRequest organizationRequest) {
+        return createAll(List.of(organizationRequest)).get(0);
+    }
+
+    // inserted with JDBC batching, see hibernate.jdbc.batch_size
+    @Override
+    @Transactional
+    public List<OrganizationResponse> createAll(List<OrganizationRequest> organizationRequests) {
+        List<Organization> organizations = new ArrayList<>();
+        for (OrganizationRequest organizationRequest : organizationRequests) {
+            organizations.add(Organization.builder()
+                    .name(organizationRequest.getName())
+                    .address(organizationRequest.getAddress())
+                    .build());
+        }
+        return organizationRepository.saveAll(organizations).stream()
+                .map(org -> mapToOrganizationResponse(org, false, false))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public boolean update(Long id, OrganizationRequest organizationRequest) {
+        if (!writeBehindProperties.isEnabled()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                Organization org = getOrganizationOrThrow(id);
+                org.setName(organizationRequest.getName());
+                org.setAddress(organizationRequest.getAddress());
+                organizationRepository.save(org);
+                organizationViewRepository.findById(id).ifPresent(view -> {
+                    view.getDocument().setName(organizationRequest.getName());
+                    view.getDocument().setAddress(organizationRequest.getAddress());
+                    view.setUpdatedAt(Instant.now());
+                });
+            });
+            return true;
+        }
+        checkExistsBeforeBuffering(id);
+        return acknowledge(organizationWriteBuffer.update(id, organizationRequest.getName(),
+                organizationRequest.getAddress()));
+    }
+
+    @Override
+    public boolean delete(Long id) {
+        if (!writeBehindProperties.isEnabled()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                organizationRepository.delete(getOrganizationOrThrow(id));
+                organizationViewRepository.deleteById(id);
+            });
+            return true;
+        }
+        checkExistsBeforeBuffering(id);
+        return acknowledge(organizationWriteBuffer.delete(id));
+    }
+
     @Override
     public OrganizationResponse findById(Long id) {
         Organization org = getOrganizationOrThrow(id);
@@ -34,19 +166,44 @@ public class OrganizationService implements IOrganizationService {
 
     @Override
     public OrganizationResponse findByIdWithDepartments(Long id) {
-        Organization org = getOrganizationOrThrow(id);
-        return mapToOrganizationResponse(org, true, false);
+        return findComposed(id, true, false);
     }
 
     @Override
     public OrganizationResponse findByIdWithDepartmentsAndEmployees(Long id) {
-        Organization org = getOrganizationOrThrow(id);
-        return mapToOrganizationResponse(org, true, true);
+        return findComposed(id, true, true);
     }
 
     @Override
     public OrganizationResponse findByIdWithEmployees(Long id) {
-        Organization org = getOrganizationOrThrow(id);
-        return mapToOrganizationResponse(org, false, true);
+        return findComposed(id, false, true);
+    }
+
+    @Override
+    public String getETag(Long id) {
+        return organizationRepository.findVersionById(id)
+                .map(version -> "\"" + version + "\"")
+                .orElse(null);
+    }
+
+    // weak: syncedAt is left out so polling clients are not sent the same document after every feed poll
+    @Override
+    public String getComposedETag(Long id) {
+        String stale = readModelSynchronizer.isStale(id) ? "-stale" : "";
+        return organizationViewRepository.findUpdatedAtById(id)
+                .map(updatedAt -> "W/\"" + updatedAt.getEpochSecond() + "." + updatedAt.getNano() + stale + "\"")
+                .orElseGet(() -> organizationRepository.findVersionById(id)
+                        .map(version -> "W/\"organization-" + version + stale + "\"")
+                        .orElse(null));
+    }
+
+    @Override
+    public ReadModelStatus getReadModelStatus() {
+        return readModelSynchronizer.getStatus();
+    }
+
+    @Override
+    public ReadModelStatus rebuildReadModel() {
+        return readModelSynchronizer.rebuild();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,8 @@
+package be.pxl.services.writebehind;
+
+public enum AcknowledgeMode {
+    /** Answer once the batch containing the write has committed; nothing acknowledged is lost. */
+    SYNC,
+    /** Answer as soon as the write is buffered; writes still pending are lost if the service dies. */
+    ASYNC
+}
@@ -0,0 +1,222 @@
+package be.pxl.services.writebehind;
+
+import be.pxl.services.domain.Organization;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer for organization updates and deletes. Writes to the same organization that arrive
+ * before the next flush are coalesced (the last one wins), and a single flusher thread writes everything
+ * pending in one transaction using JDBC batches. Each write gets a future that completes once its batch has
+ * committed, or fails when the organization no longer exists.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrganizationWriteBuffer {
+    private static final String UPDATE_ORGANIZATION =
+            "UPDATE organization SET name = ?, address = ?, version = version + 1 WHERE id = ?";
+    // keeps the header of the read model document in step with the organization row
+    private static final String UPDATE_VIEW = "UPDATE organization_view SET document = "
+            + "jsonb_set(jsonb_set(document, '{name}', coalesce(to_jsonb(CAST(? AS text)), 'null'::jsonb)), "
+            + "'{address}', coalesce(to_jsonb(CAST(? AS text)), 'null'::jsonb)), updated_at = now() "
+            + "WHERE organization_id = ?";
+    private static final String DELETE_ORGANIZATION = "DELETE FROM organization WHERE id = ?";
+    private static final String DELETE_VIEW = "DELETE FROM organization_view WHERE organization_id = ?";
+
+    private final WriteBehindProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchReady = lock.newCondition();
+    private LinkedHashMap<Long, PendingWrite> pending = new LinkedHashMap<>();
+    private Thread flusher;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::run, "organization-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    public CompletableFuture<Void> update(Long id, String name, String address) {
+        return enqueue(id, name, address, false);
+    }
+
+    public CompletableFuture<Void> delete(Long id) {
+        return enqueue(id, null, null, true);
+    }
+
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private CompletableFuture<Void> enqueue(Long id, String name, String address, boolean delete) {
+        CompletableFuture<Void> acknowledgement = new CompletableFuture<>();
+        lock.lock();
+        try {
+            if (!running) {
+                throw new RuntimeException("Organization write buffer is not running");
+            }
+            PendingWrite write = pending.get(id);
+            if (write == null) {
+                if (pending.size() >= properties.getCapacity()) {
+                    throw new WriteBehindFullException(properties.getCapacity());
+                }
+                write = new PendingWrite(id);
+                pending.put(id, write);
+            } else if (write.delete) {
+                throw new RuntimeException("Organization not found");
+            }
+            write.name = name;
+            write.address = address;
+            write.delete = delete;
+            write.acknowledgements.add(acknowledgement);
+            if (pending.size() >= properties.getBatchSize()) {
+                batchReady.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return acknowledgement;
+    }
+
+    private void run() {
+        while (true) {
+            LinkedHashMap<Long, PendingWrite> batch;
+            lock.lock();
+            try {
+                if (running && pending.size() < properties.getBatchSize()) {
+                    batchReady.await(properties.getFlushInterval().toNanos(), TimeUnit.NANOSECONDS);
+                }
+                if (pending.isEmpty()) {
+                    if (!running) {
+                        return;
+                    }
+                    continue;
+                }
+                batch = pending;
+                pending = new LinkedHashMap<>();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+                continue;
+            } finally {
+                lock.unlock();
+            }
+            flush(new ArrayList<>(batch.values()));
+        }
+    }
+
+    private void flush(List<PendingWrite> writes) {
+        List<PendingWrite> updates = writes.stream().filter(write -> !write.delete).toList();
+        List<PendingWrite> deletes = writes.stream().filter(write -> write.delete).toList();
+        int batchSize = properties.getBatchSize();
+        try {
+            List<Integer> counts = transactionTemplate.execute(status -> {
+                List<Integer> rows = new ArrayList<>();
+                collect(rows, jdbcTemplate.batchUpdate(UPDATE_ORGANIZATION, updates, batchSize, (statement, write) -> {
+                    statement.setString(1, write.name);
+                    statement.setString(2, write.address);
+                    statement.setLong(3, write.id);
+                }));
+                jdbcTemplate.batchUpdate(UPDATE_VIEW, updates, batchSize, (statement, write) -> {
+                    statement.setString(1, write.name);
+                    statement.setString(2, write.address);
+                    statement.setLong(3, write.id);
+                });
+                collect(rows, jdbcTemplate.batchUpdate(DELETE_ORGANIZATION, deletes, batchSize,
+                        (statement, write) -> statement.setLong(1, write.id)));
+                jdbcTemplate.batchUpdate(DELETE_VIEW, deletes, batchSize,
+                        (statement, write) -> statement.setLong(1, write.id));
+                return rows;
+            });
+            evictCached(writes);
+            for (int i = 0; i < writes.size(); i++) {
+                PendingWrite write = i < updates.size() ? updates.get(i) : deletes.get(i - updates.size());
+                if (counts.get(i) == 0) {
+                    write.fail(new RuntimeException("Organization not found"));
+                } else {
+                    write.acknowledgements.forEach(acknowledgement -> acknowledgement.complete(null));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Could not write {} buffered organization change(s)", writes.size(), e);
+            writes.forEach(write -> write.fail(e));
+        }
+    }
+
+    // the batches bypass Hibernate; what it cached for these organizations is dropped before anyone is told the
+    // writes committed
+    private void evictCached(List<PendingWrite> writes) {
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        writes.forEach(write -> cache.evictEntityData(Organization.class, write.id));
+        cache.evictQueryRegions();
+    }
+
+    private static void collect(List<Integer> rows, int[][] counts) {
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                rows.add(count);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            running = false;
+            batchReady.signal();
+        } finally {
+            lock.unlock();
+        }
+        // drains whatever is still pending, so asynchronously acknowledged writes survive a graceful shutdown
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    private static class PendingWrite {
+        private final Long id;
+        private String name;
+        private String address;
+        private boolean delete;
+        private final List<CompletableFuture<Void>> acknowledgements = new ArrayList<>();
+
+        private PendingWrite(Long id) {
+            this.id = id;
+        }
+
+        private void fail(Throwable cause) {
+            acknowledgements.forEach(acknowledgement -> acknowledgement.completeExceptionally(cause));
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package be.pxl.services.writebehind;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class WriteBehindFullException extends RuntimeException {
+    public WriteBehindFullException(int capacity) {
+        super("Organization write buffer is full (" + capacity + " pending organizations)");
+    }
+}
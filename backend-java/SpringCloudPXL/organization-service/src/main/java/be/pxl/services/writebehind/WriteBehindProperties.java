@@ -0,0 +1,18 @@
+package be.pxl.services.writebehind;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "organization.write-behind")
+public class WriteBehindProperties {
+    // when disabled every update and delete is saved by its own request, as before
+    private boolean enabled = true;
+    private AcknowledgeMode acknowledge = AcknowledgeMode.SYNC;
+    private Duration flushInterval = Duration.ofMillis(20);
+    private int batchSize = 500;
+    // maximum number of organizations with a pending write
+    private int capacity = 10000;
+}
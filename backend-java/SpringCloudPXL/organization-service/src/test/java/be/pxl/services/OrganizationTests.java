@@ -1,13 +1,33 @@
 package be.pxl.services;
 
+import be.pxl.services.deadline.DeadlineExceededException;
+import be.pxl.services.deadline.DeadlineRequestInterceptor;
+import be.pxl.services.deadline.RequestDeadline;
+import be.pxl.services.domain.ChangeFeedCursor;
+import be.pxl.services.domain.Department;
+import be.pxl.services.domain.Employee;
 import be.pxl.services.domain.Organization;
+import be.pxl.services.client.EmployeeClient;
+import be.pxl.services.domain.dto.OrganizationRequest;
+import be.pxl.services.hedging.HedgingCapability;
+import be.pxl.services.readmodel.ChangeFeedEvent;
+import be.pxl.services.readmodel.ChangeType;
+import be.pxl.services.readmodel.OrganizationViewProjector;
 import be.pxl.services.repository.OrganizationRepository;
+import be.pxl.services.repository.OrganizationViewRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.Client;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import feign.Target;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
@@ -16,10 +36,16 @@ import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -32,6 +58,16 @@ public class OrganizationTests {
     private ObjectMapper objectMapper;
     @Autowired
     private OrganizationRepository organizationRepository;
+    @Autowired
+    private OrganizationViewRepository organizationViewRepository;
+    @Autowired
+    private OrganizationViewProjector organizationViewProjector;
+    @Autowired
+    private HedgingCapability hedgingCapability;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private DeadlineRequestInterceptor deadlineRequestInterceptor;
 
     @Container
     private static final PostgreSQLContainer postgreSQLContainer =
@@ -42,11 +78,16 @@ public class OrganizationTests {
         registry.add("spring.datasource.url", postgreSQLContainer::getJdbcUrl);
         registry.add("spring.datasource.username", postgreSQLContainer::getUsername);
         registry.add("spring.datasource.password", postgreSQLContainer::getPassword);
+        registry.add("hedging.enabled", () -> true);
+        registry.add("hedging.clients", () -> "employee-service");
+        registry.add("hedging.initial-delay", () -> "50ms");
+        registry.add("deadline.enabled", () -> true);
     }
 
     @BeforeEach
     void setUp() {
         organizationRepository.deleteAll();
+        organizationViewRepository.deleteAll();
     }
 
     @Test
@@ -125,4 +166,183 @@ public class OrganizationTests {
         assertTrue(foundOrganization.isPresent());
         assertEquals("Enterprise Corp", foundOrganization.get().getName());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetOrganizationByIdWithDepartmentsAndEmployeesFromReadModel() throws Exception {
+        Organization savedOrganization = organizationRepository.save(Organization.builder()
+                .name("Read Model Corp")
+                .address("1 View Lane")
+                .build());
+        Long organizationId = savedOrganization.getId();
+
+        organizationViewProjector.applyDepartmentEvents(List.of(ChangeFeedEvent.<Department>builder()
+                        .sequence(1).type(ChangeType.CREATED).entityId(7L).organizationId(organizationId)
+                        .payload(new Department(7L, organizationId, "R&D", null))
+                        .build()),
+                ChangeFeedCursor.builder().feed("department").epoch("test").sequence(1).build());
+        organizationViewProjector.applyEmployeeEvents(List.of(
+                        ChangeFeedEvent.<Employee>builder()
+                                .sequence(1).type(ChangeType.CREATED).entityId(11L).organizationId(organizationId)
+                                .payload(new Employee(11L, organizationId, 7L, "Eva", 31, "Developer"))
+                                .build(),
+                        ChangeFeedEvent.<Employee>builder()
+                                .sequence(2).type(ChangeType.CREATED).entityId(12L).organizationId(organizationId)
+                                .payload(new Employee(12L, organizationId, 7L, "Tom", 45, "Manager"))
+                                .build(),
+                        ChangeFeedEvent.<Employee>builder()
+                                .sequence(3).type(ChangeType.DELETED).entityId(12L).organizationId(organizationId)
+                                .build()),
+                ChangeFeedCursor.builder().feed("employee").epoch("test").sequence(3).build());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/organization/" + organizationId + "/with-departments-and-employees"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Read Model Corp"))
+                .andExpect(jsonPath("$.address").value("1 View Lane"))
+                .andExpect(jsonPath("$.departments.length()").value(1))
+                .andExpect(jsonPath("$.departments[0].name").value("R&D"))
+                .andExpect(jsonPath("$.departments[0].employees.length()").value(1))
+                .andExpect(jsonPath("$.departments[0].employees[0].name").value("Eva"))
+                .andExpect(jsonPath("$.employees.length()").value(1))
+                .andExpect(jsonPath("$.stale").isBoolean());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/organization/" + organizationId + "/with-departments"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.departments[0].employees").doesNotExist())
+                .andExpect(jsonPath("$.employees").doesNotExist());
+    }
+
+    @Test
+    public void testConditionalGetOrganization() throws Exception {
+        Organization savedOrganization = organizationRepository.save(Organization.builder()
+                .name("Cache Corp")
+                .address("304 Not Modified Road")
+                .build());
+
+        String etag = mockMvc.perform(MockMvcRequestBuilders.get("/api/organization/" + savedOrganization.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/organization/" + savedOrganization.getId())
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        savedOrganization.setAddress("200 OK Street");
+        organizationRepository.save(savedOrganization);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/organization/" + savedOrganization.getId())
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.address").value("200 OK Street"));
+    }
+
+    @Test
+    public void testCreateUpdateAndDeleteOrganization() throws Exception {
+        String created = mockMvc.perform(MockMvcRequestBuilders.post("/api/organization")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(OrganizationRequest.builder()
+                                .name("Start-up BV")
+                                .address("1 Garage Lane")
+                                .build())))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").isNumber())
+                .andReturn().getResponse().getContentAsString();
+        Long id = objectMapper.readTree(created).get("id").asLong();
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/organization/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(
+                                OrganizationRequest.builder().name("Bulk One").address("A").build(),
+                                OrganizationRequest.builder().name("Bulk Two").address("B").build()))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.length()").value(2));
+        assertEquals(3, organizationRepository.count());
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/organization/" + id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(OrganizationRequest.builder()
+                                .name("Scale-up NV")
+                                .address("2 Office Park")
+                                .build())))
+                .andExpect(status().isNoContent());
+        Organization updated = organizationRepository.findById(id).orElseThrow();
+        assertEquals("Scale-up NV", updated.getName());
+        assertEquals(1L, updated.getVersion());
+
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/organization/" + id))
+                .andExpect(status().isNoContent());
+        assertFalse(organizationRepository.existsById(id));
+    }
+
+    @Test
+    public void testSlowCallIsHedged() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        Client slowFirstCall = (request, options) -> {
+            int call = calls.incrementAndGet();
+            if (call == 1) {
+                try {
+                    Thread.sleep(2000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return Response.builder()
+                    .status(200)
+                    .request(request)
+                    .headers(Map.of())
+                    .body("call " + call, StandardCharsets.UTF_8)
+                    .build();
+        };
+        Client client = hedgingCapability.enrich(slowFirstCall);
+        RequestTemplate template = new RequestTemplate()
+                .method(Request.HttpMethod.GET)
+                .uri("/api/employee/organization/1");
+        template.feignTarget(new Target.HardCodedTarget<>(EmployeeClient.class, "employee-service",
+                "http://employee-service"));
+        template.target("http://employee-service");
+
+        long start = System.nanoTime();
+        try (Response response = client.execute(template.resolve(Map.of()).request(), new Request.Options())) {
+            assertEquals("call 2", new String(response.body().asInputStream().readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertTrue(System.nanoTime() - start < 1_000_000_000L);
+        assertEquals(1.0, meterRegistry.counter("hedging.fired", "client", "employee-service").count());
+        assertEquals(1.0, meterRegistry.counter("hedging.won", "client", "employee-service").count());
+
+        // not listed in hedging.clients: called once, however slow
+        template.feignTarget(new Target.HardCodedTarget<>(EmployeeClient.class, "department-service",
+                "http://department-service"));
+        calls.set(0);
+        try (Response response = client.execute(template.resolve(Map.of()).request(), new Request.Options())) {
+            assertEquals("call 1", new String(response.body().asInputStream().readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testRemainingDeadlineIsPropagated() throws Exception {
+        RequestTemplate template = new RequestTemplate()
+                .method(Request.HttpMethod.GET)
+                .uri("/api/employee/organization/1");
+        template.feignTarget(new Target.HardCodedTarget<>(EmployeeClient.class, "employee-service",
+                "http://employee-service"));
+
+        deadlineRequestInterceptor.apply(template);
+        assertFalse(template.headers().containsKey(RequestDeadline.HEADER));
+
+        RequestDeadline.set(Duration.ofSeconds(2));
+        try {
+            deadlineRequestInterceptor.apply(template);
+            long remaining = Long.parseLong(template.headers().get(RequestDeadline.HEADER).iterator().next());
+            assertTrue(remaining > 0 && remaining <= 2000);
+
+            RequestDeadline.set(Duration.ZERO);
+            assertThrows(DeadlineExceededException.class, () -> deadlineRequestInterceptor.apply(template));
+        } finally {
+            RequestDeadline.clear();
+        }
+        assertEquals(1.0, meterRegistry.counter("deadline.exceeded", "stage", "call").count());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/organization/1").header(RequestDeadline.HEADER, "-5"))
+                .andExpect(status().isGatewayTimeout());
+    }
+}